@@ -0,0 +1,42 @@
+-- Plans and scan counts for the borrowing and ban queries against the seeded database.
+-- Every plan should name one of the idx_borrowing_* / idx_ban_* indexes and report a scanCount in the
+-- single digits, independent of the ~10M history rows.
+--
+--   java -cp h2-*.jar org.h2.tools.RunScript -url jdbc:h2:file:./data/bench -user sa -script benchmark/explain-h2.sql -showResults
+
+-- Borrow eligibility (BorrowingRecordRepository.findEligibility)
+EXPLAIN ANALYZE
+SELECT b.book_status,
+       (SELECT COUNT(p.id) FROM patron p WHERE p.id = 4242),
+       (SELECT MAX(r.borrow_date) FROM borrowing_record r WHERE r.patron_id = 4242 AND r.return_date IS NULL),
+       (SELECT MAX(br.ban_until) FROM ban_record br WHERE br.patron_id = 4242 AND br.ban_until > CURRENT_DATE)
+FROM book b
+WHERE b.id = 4242;
+
+-- Return lookup (findFirstByPatron_IdAndBook_IdAndReturnDateIsNullOrderByBorrowDateDesc)
+EXPLAIN ANALYZE
+SELECT r.id, r.borrow_date
+FROM borrowing_record r
+WHERE r.patron_id = 4242 AND r.book_id = 4242 AND r.return_date IS NULL
+ORDER BY r.borrow_date DESC
+FETCH FIRST 1 ROWS ONLY;
+
+-- Batch return (findByBook_IdInAndReturnDateIsNull)
+EXPLAIN ANALYZE
+SELECT r.id, r.patron_id, r.borrow_date
+FROM borrowing_record r
+WHERE r.book_id IN (10, 20, 30, 40, 50) AND r.return_date IS NULL;
+
+-- Batch borrow bans (findByPatron_IdInAndBanUntilAfter)
+EXPLAIN ANALYZE
+SELECT br.patron_id, br.ban_until
+FROM ban_record br
+WHERE br.patron_id IN (14, 27, 40) AND br.ban_until > CURRENT_DATE;
+
+-- Overdue open loans, oldest first
+EXPLAIN ANALYZE
+SELECT r.id, r.patron_id, r.borrow_date
+FROM borrowing_record r
+WHERE r.return_date IS NULL AND r.borrow_date < DATEADD('WEEK', -1, DATEADD('MONTH', -3, CURRENT_DATE))
+ORDER BY r.borrow_date
+FETCH FIRST 500 ROWS ONLY;
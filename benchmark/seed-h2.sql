@@ -0,0 +1,60 @@
+-- Seeds an H2 database with 100k patrons, 1M books and ~10M borrowing records to check that the
+-- borrowing and ban lookups stay index-only as history grows. Run against a file database whose schema
+-- was created by the application first (see "Index benchmark" in the README):
+--
+--   java -cp h2-*.jar org.h2.tools.RunScript -url jdbc:h2:file:./data/bench -user sa -script benchmark/seed-h2.sql
+--
+-- Takes several minutes and ~2 GB of disk.
+
+SET AUTOCOMMIT ON;
+
+INSERT INTO patron (id, version, name, contact_info)
+SELECT X, 0, 'Patron ' || X, 'patron' || X || '@example.com'
+FROM SYSTEM_RANGE(1, 100000);
+
+-- Books 1..10000 are out on loan, the rest are on the shelf
+INSERT INTO book (id, version, title, author, isbn, publish_date, book_status)
+SELECT X, 0, 'Book ' || X, 'Author ' || MOD(X, 50000), LPAD(CAST(X AS VARCHAR), 13, '0'),
+       DATEADD('DAY', -MOD(X, 36500) - 1, CURRENT_DATE),
+       CASE WHEN X <= 10000 THEN 'BORROWED' ELSE 'AVAILABLE' END
+FROM SYSTEM_RANGE(1, 1000000);
+
+-- Ten years of returned loans, inserted in chunks so the undo log stays small
+INSERT INTO borrowing_record (id, version, book_id, patron_id, borrow_date, return_date)
+SELECT X, 0, MOD(X * 7, 1000000) + 1, MOD(X, 100000) + 1,
+       DATEADD('DAY', -MOD(X, 3650) - 60, CURRENT_DATE), DATEADD('DAY', -MOD(X, 3650) - 46, CURRENT_DATE)
+FROM SYSTEM_RANGE(1, 2500000);
+INSERT INTO borrowing_record (id, version, book_id, patron_id, borrow_date, return_date)
+SELECT X, 0, MOD(X * 7, 1000000) + 1, MOD(X, 100000) + 1,
+       DATEADD('DAY', -MOD(X, 3650) - 60, CURRENT_DATE), DATEADD('DAY', -MOD(X, 3650) - 46, CURRENT_DATE)
+FROM SYSTEM_RANGE(2500001, 5000000);
+INSERT INTO borrowing_record (id, version, book_id, patron_id, borrow_date, return_date)
+SELECT X, 0, MOD(X * 7, 1000000) + 1, MOD(X, 100000) + 1,
+       DATEADD('DAY', -MOD(X, 3650) - 60, CURRENT_DATE), DATEADD('DAY', -MOD(X, 3650) - 46, CURRENT_DATE)
+FROM SYSTEM_RANGE(5000001, 7500000);
+INSERT INTO borrowing_record (id, version, book_id, patron_id, borrow_date, return_date)
+SELECT X, 0, MOD(X * 7, 1000000) + 1, MOD(X, 100000) + 1,
+       DATEADD('DAY', -MOD(X, 3650) - 60, CURRENT_DATE), DATEADD('DAY', -MOD(X, 3650) - 46, CURRENT_DATE)
+FROM SYSTEM_RANGE(7500001, 9990000);
+
+-- 10000 open loans, one per patron 1..10000; every tenth one is past the 3 month + 1 week grace period.
+-- open_patron_id is set on open loans only, like the application does, so uk_borrowing_open_patron holds.
+INSERT INTO borrowing_record (id, version, book_id, patron_id, borrow_date, return_date, open_patron_id)
+SELECT 9990000 + X, 0, X, X,
+       CASE WHEN MOD(X, 10) = 0 THEN DATEADD('MONTH', -5, CURRENT_DATE) ELSE DATEADD('DAY', -MOD(X, 60), CURRENT_DATE) END,
+       NULL, X
+FROM SYSTEM_RANGE(1, 10000);
+
+-- 20000 bans, half of them still active
+INSERT INTO ban_record (id, version, patron_id, ban_until)
+SELECT X, 0, MOD(X * 13, 100000) + 1,
+       CASE WHEN MOD(X, 2) = 0 THEN DATEADD('DAY', MOD(X, 180) + 1, CURRENT_DATE) ELSE DATEADD('DAY', -MOD(X, 720) - 1, CURRENT_DATE) END
+FROM SYSTEM_RANGE(1, 20000);
+
+-- Move the pooled id sequences (increment 50) past the seeded ids
+ALTER SEQUENCE patron_seq RESTART WITH 100100;
+ALTER SEQUENCE book_seq RESTART WITH 1000100;
+ALTER SEQUENCE borrowing_record_seq RESTART WITH 10000100;
+ALTER SEQUENCE ban_record_seq RESTART WITH 20100;
+
+ANALYZE;
@@ -0,0 +1,79 @@
+// k6 load test for the JDBC- and BCrypt-bound paths: login, borrow, return and book lookup.
+// Run it once against the default (platform-thread) build and once against -Pvthreads, then compare
+// http_reqs/s and the p(99) column of the summary. See "Load testing" in the README.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e VUS=200 -e DURATION=2m load-test/borrow-return.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS || '200');
+const LOGIN_RATIO = parseFloat(__ENV.LOGIN_RATIO || '0.1');
+const PASSWORD = 'load-test-password';
+
+export const options = {
+    vus: VUS,
+    duration: __ENV.DURATION || '2m',
+    setupTimeout: '5m',
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        checks: ['rate>0.99'],
+    },
+};
+
+function json(token, name) {
+    const headers = { 'Content-Type': 'application/json' };
+    if (token) {
+        headers.Authorization = `Bearer ${token}`;
+    }
+    return name ? { headers, tags: { name } } : { headers };
+}
+
+export function setup() {
+    const username = `load-admin-${Date.now()}`;
+    const register = http.post(`${BASE_URL}/api/auth/register`,
+        JSON.stringify({ username, password: PASSWORD, role: 'ADMIN' }), json());
+    const token = register.json('access_token');
+
+    // One patron and one book per virtual user, so borrows only contend on the server, not on test data
+    const stamp = String(Date.now() % 1e6).padStart(6, '0');
+    const pairs = [];
+    for (let i = 0; i < VUS; i++) {
+        const isbn = `978${stamp}${String(i).padStart(4, '0')}`;
+        const book = http.post(`${BASE_URL}/api/books`, JSON.stringify({
+            title: `Load Test Book ${isbn}`, author: 'k6', isbn, publishDate: '2000-01-01',
+        }), json(token));
+        const patron = http.post(`${BASE_URL}/api/patrons`, JSON.stringify({
+            name: `Load Test Patron ${isbn}`, contactInfo: isbn,
+        }), json(token));
+        // Logging in revokes the user's earlier tokens, so every virtual user gets an account of its own
+        const user = `${username}-${i}`;
+        http.post(`${BASE_URL}/api/auth/register`,
+            JSON.stringify({ username: user, password: PASSWORD, role: 'USER' }), json());
+        pairs.push({ bookId: book.json('id'), patronId: patron.json('id'), user });
+    }
+    return { pairs };
+}
+
+// Per virtual user: k6 runs each VU in its own JS runtime
+let token = null;
+
+export default function (data) {
+    const { bookId, patronId, user } = data.pairs[(__VU - 1) % data.pairs.length];
+
+    if (token === null || Math.random() < LOGIN_RATIO) {
+        const login = http.post(`${BASE_URL}/api/auth/login`,
+            JSON.stringify({ username: user, password: PASSWORD }), json(null, 'login'));
+        check(login, { 'login 200': (r) => r.status === 200 });
+        token = login.json('access_token') || token;
+    }
+
+    const borrow = http.post(`${BASE_URL}/api/borrow/${bookId}/patron/${patronId}`, null, json(token, 'borrow'));
+    check(borrow, { 'borrow 200': (r) => r.status === 200 });
+
+    const lookup = http.get(`${BASE_URL}/api/books/${bookId}`, { tags: { name: 'getBook' } });
+    check(lookup, { 'getBook 200': (r) => r.status === 200 });
+
+    const giveBack = http.put(`${BASE_URL}/api/borrow/return/${bookId}/patron/${patronId}`, null, json(token, 'return'));
+    check(giveBack, { 'return 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,87 @@
+package com.example.LMS_test.config;
+
+import com.example.LMS_test.user.Role;
+import com.example.LMS_test.user.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating a bearer token in {@link JwtAuthenticationFilter}, before and after the
+ * signing key, parser and claims were kept in {@link JwtService}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtServiceBenchmark {
+    private static final String SECRET_KEY = "6A3F9D2E7C1B4A8E5F0C3D9A2B7E4F8C1A5D3E6B9F2C7A4E8D1B6F3C9A2E5D8B1F4C7";
+
+    private JwtService cached;
+    private JwtService uncached;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cached = jwtService(10_000);
+        uncached = jwtService(0);
+        user = User.builder().username("abd").role(Role.USER).build();
+        token = cached.generateToken(user);
+    }
+
+    // Former filter path: extractUserName, then validateToken parsing again for the subject and the expiration,
+    // each parse decoding the key and building a parser
+    @Benchmark
+    public boolean beforeParsePerClaim() {
+        String userName = parseWithNewParser(token).getSubject();
+        return userName.equals(parseWithNewParser(token).getSubject())
+                && !parseWithNewParser(token).getExpiration().before(new Date());
+    }
+
+    // Current filter path for a token seen before: one cache lookup, validated from the same claims
+    @Benchmark
+    public boolean afterCachedClaims() {
+        Claims claims = cached.extractAllClaims(token);
+        return cached.isTokenValid(claims, user);
+    }
+
+    // Current filter path for a token not in the cache: a single parse with the reused parser
+    @Benchmark
+    public boolean afterCacheMiss() {
+        Claims claims = uncached.extractAllClaims(token);
+        return uncached.isTokenValid(claims, user);
+    }
+
+    private static Claims parseWithNewParser(String token) {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+
+    private static JwtService jwtService(long claimsCacheMaximumSize) {
+        JwtService jwtService = new JwtService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(jwtService, "claimsCacheMaximumSize", claimsCacheMaximumSize);
+        jwtService.init();
+        return jwtService;
+    }
+}
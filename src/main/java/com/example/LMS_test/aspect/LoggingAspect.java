@@ -1,29 +1,53 @@
 package com.example.LMS_test.aspect;
 
-import com.example.LMS_test.user.User;
-import com.example.LMS_test.user.UserRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StopWatch;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerMapping;
 
-import java.util.Optional;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Writes one JSON access record per controller call to the "access" logger, which logback-spring.xml routes
+ * through an async appender. Successful, fast requests are sampled; errors and slow requests are always kept.
+ */
 @Aspect
 @Component
 @RequiredArgsConstructor
 public class LoggingAspect {
-    private static final Logger logger = LoggerFactory.getLogger(LoggingAspect.class);
+    private static final Logger accessLogger = LoggerFactory.getLogger("access");
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     private final HttpServletRequest request;
-    private final UserRepository userRepository;
+
+    // "Controller.method" per handler method, built once instead of on every call
+    private final ConcurrentHashMap<Method, String> handlerNames = new ConcurrentHashMap<>();
+
+    @Value("${logging.access.success-sample-rate:0.1}")
+    private double successSampleRate;
+
+    @Value("${logging.access.slow-threshold-ms:500}")
+    private long slowThresholdMs;
 
     // Pointcut for all APIs
     @Pointcut("@annotation(org.springframework.web.bind.annotation.RequestMapping)"
@@ -37,42 +61,71 @@ public class LoggingAspect {
 
     @Around("controllerPointcut()")
     public Object logControllerMethods(ProceedingJoinPoint joinPoint) throws Throwable {
-
-        String api = request.getRequestURI();
-
-        String className = joinPoint.getTarget().getClass().getSimpleName();
-        String methodName = joinPoint.getSignature().getName();
-        StopWatch stopWatch = new StopWatch();
-
-        String userName = "anonymousUser";
-        User user = getUser();
-        if (user != null) userName = user.getUsername();
-
-
+        long start = System.nanoTime();
         try {
-            logger.info("Received API request {} [{}.{}] by {}", api, className, methodName, userName);
-            stopWatch.start();
-
             Object result = joinPoint.proceed();
-
-            stopWatch.stop();
-            logger.info("Completed API request {} [{}.{}] by {} in {} ms", api, className, methodName, userName, stopWatch.getTotalTimeMillis());
-
+            long elapsedNanos = System.nanoTime() - start;
+            if (shouldLogSuccess(elapsedNanos)) {
+                int status = result instanceof ResponseEntity<?> response ? response.getStatusCode().value() : 200;
+                log(joinPoint, status, elapsedNanos, null);
+            }
             return result;
         } catch (Exception e) {
-            logger.error("Exception in {} [{}.{}] - {}", api, className, methodName, e.getMessage());
+            int status = e instanceof ResponseStatusException rse ? rse.getStatusCode().value() : 500;
+            log(joinPoint, status, System.nanoTime() - start, e);
             throw e;
         }
     }
 
-    public User getUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        Object principal = auth.getPrincipal();
-        if (auth.isAuthenticated() && principal instanceof String) {
-            Optional<User> user = userRepository.findByUsername(principal.toString());
-            return user.orElse(null);
+    private boolean shouldLogSuccess(long elapsedNanos) {
+        if (!accessLogger.isInfoEnabled()) {
+            return false;
+        }
+        return elapsedNanos >= TimeUnit.MILLISECONDS.toNanos(slowThresholdMs)
+                || ThreadLocalRandom.current().nextDouble() < successSampleRate;
+    }
+
+    private void log(ProceedingJoinPoint joinPoint, int status, long elapsedNanos, Exception error) {
+        StringWriter json = new StringWriter(192);
+        // Jackson escapes quotes, backslashes and control characters in the route, user name and error message
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(json)) {
+            generator.writeStartObject();
+            generator.writeNumberField("ts", System.currentTimeMillis());
+            generator.writeStringField("method", request.getMethod());
+            generator.writeStringField("route", route());
+            generator.writeStringField("handler", handlerName(joinPoint));
+            generator.writeNumberField("status", status);
+            generator.writeNumberField("durationUs", TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+            generator.writeStringField("user", getUserName());
+            if (error != null) {
+                generator.writeStringField("error", error.getMessage());
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // a StringWriter does not fail
+        }
+        if (error != null) {
+            accessLogger.warn(json.toString());
         } else {
-            return (User) principal;
+            accessLogger.info(json.toString());
         }
     }
-}
\ No newline at end of file
+
+    // The route template ("/api/books/{id}") Spring already matched, so records group by endpoint, not by id
+    private String route() {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : request.getRequestURI();
+    }
+
+    private String handlerName(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return handlerNames.computeIfAbsent(method,
+                m -> joinPoint.getTarget().getClass().getSimpleName() + "." + m.getName());
+    }
+
+    // The principal was already resolved by the JWT filter, so no lookup is needed here
+    private String getUserName() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null ? auth.getName() : "anonymousUser";
+    }
+}
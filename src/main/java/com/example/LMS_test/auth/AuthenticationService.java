@@ -3,6 +3,7 @@ package com.example.LMS_test.auth;
 import com.example.LMS_test.config.JwtService;
 import com.example.LMS_test.token.Token;
 import com.example.LMS_test.token.TokenRepository;
+import com.example.LMS_test.token.TokenRevocationRegistry;
 import com.example.LMS_test.token.TokenType;
 import com.example.LMS_test.user.User;
 import com.example.LMS_test.user.UserRepository;
@@ -19,6 +20,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 @Service
 @RequiredArgsConstructor
@@ -28,6 +31,7 @@ public class AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final TokenRevocationRegistry revocationRegistry;
 
     public AuthenticationResponse register(RegisterRequest request) {
         var user = repository.findByUsername(request.getUsername()).orElse(null);
@@ -76,6 +80,7 @@ public class AuthenticationService {
                 .tokenType(TokenType.BEARER)
                 .expired(false)
                 .revoked(false)
+                .expiresAt(LocalDateTime.ofInstant(jwtService.extractExpiration(jwtToken).toInstant(), ZoneId.systemDefault()))
                 .build();
         tokenRepository.save(token);
     }
@@ -89,6 +94,7 @@ public class AuthenticationService {
             token.setRevoked(true);
         });
         tokenRepository.saveAll(validUserTokens);
+        revocationRegistry.revoke(validUserTokens);
     }
 
     public void refreshToken(
@@ -2,7 +2,7 @@ package com.example.LMS_test.ban;
 
 import com.example.LMS_test.baseEntity.BaseEntity;
 import com.example.LMS_test.patron.Patron;
-import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -12,6 +12,10 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 
 @Entity
+@Table(indexes = {
+        // Active ban of a patron
+        @Index(name = "idx_ban_patron_until", columnList = "patron_id, banUntil")
+})
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
@@ -21,8 +25,8 @@ public class BanRecord extends BaseEntity {
     @Column(nullable = false)
     private LocalDate banUntil;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patron_id", nullable = false)
-    @JsonBackReference
+    @JsonIgnore
     private Patron patron;
 }
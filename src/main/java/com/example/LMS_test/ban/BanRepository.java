@@ -1,13 +1,18 @@
 package com.example.LMS_test.ban;
 
-import com.example.LMS_test.patron.Patron;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDate;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 public interface BanRepository extends JpaRepository<BanRecord, Long> {
-    Optional<BanRecord> findByPatronAndBanUntilAfter(Patron patron, LocalDate date);
+    List<BanRecord> findByPatron_IdInAndBanUntilAfter(Collection<Long> patronIds, LocalDate date);
+
+    @Query("select distinct b.patron.id from BanRecord b where b.patron.id in :patronIds and b.banUntil > :date")
+    Set<Long> findPatronIdsBannedAfter(Collection<Long> patronIds, LocalDate date);
 }
 
 
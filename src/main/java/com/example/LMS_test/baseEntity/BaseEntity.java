@@ -2,6 +2,7 @@ package com.example.LMS_test.baseEntity;
 //
 
 import com.example.LMS_test.user.User;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.ColumnDefault;
@@ -20,8 +21,9 @@ import java.time.LocalDateTime;
 @Audited
 public class BaseEntity {
 
+    // SEQUENCE (pooled, one sequence per entity) instead of IDENTITY so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private Long id;
 
     @Version
@@ -36,10 +38,12 @@ public class BaseEntity {
     private LocalDateTime lastModificationDate;
 
     @CreatedBy
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnore
     private User creator;
 
     @LastModifiedBy
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnore
     private User lastModifier;
 }
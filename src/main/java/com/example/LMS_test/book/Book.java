@@ -2,7 +2,7 @@ package com.example.LMS_test.book;
 
 import com.example.LMS_test.baseEntity.BaseEntity;
 import com.example.LMS_test.borrow.BorrowingRecord;
-import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -37,6 +37,6 @@ public class Book extends BaseEntity {
     private BookStatus bookStatus;
 
     @OneToMany(mappedBy = "book", fetch = FetchType.LAZY)
-    @JsonManagedReference
+    @JsonIgnore
     private List<BorrowingRecord> borrowingRecords;
 }
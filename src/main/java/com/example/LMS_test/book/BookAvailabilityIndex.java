@@ -0,0 +1,80 @@
+package com.example.LMS_test.book;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of which books are out, used to reject borrows of unavailable books without a database round trip,
+ * and of the borrow claims in flight on this node, so concurrent borrows of one book are settled in memory.
+ * <p>
+ * A book is remembered as borrowed once a borrow of it commits here or the database reports it borrowed, but only
+ * for {@code book.availability.borrowed-hint-ttl-ms}: another node can return it at any time, so a stale hint
+ * rejects at most that long. Returns on this node drop the hint right away. Whether a book is available is always
+ * decided by the guarded status update on the book table.
+ */
+@Component
+public class BookAvailabilityIndex {
+
+    // book id -> owner of the claim, so a finished transaction never drops a claim taken after its own
+    private final ConcurrentHashMap<Long, Object> claims = new ConcurrentHashMap<>();
+    private final Cache<Long, Boolean> borrowed;
+
+    public BookAvailabilityIndex(@Value("${book.availability.borrowed-hint-ttl-ms:5000}") long borrowedHintTtlMillis,
+                                 @Value("${book.availability.borrowed-hint-maximum-size:100000}") long maximumSize) {
+        this.borrowed = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(borrowedHintTtlMillis))
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    public boolean isKnownBorrowed(Long bookId) {
+        return borrowed.getIfPresent(bookId) != null;
+    }
+
+    /**
+     * Claims the book for the current transaction, right before its guarded status update. The book is remembered
+     * as borrowed once the transaction commits.
+     *
+     * @return false if another transaction on this node is borrowing the book right now
+     */
+    public boolean tryClaim(Long bookId) {
+        Object claim = new Object();
+        if (claims.putIfAbsent(bookId, claim) != null) {
+            return false;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Nothing to hold the claim for, the database update settles it
+            claims.remove(bookId, claim);
+            return true;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                claims.remove(bookId, claim);
+                if (status == STATUS_COMMITTED) {
+                    borrowed.put(bookId, Boolean.TRUE);
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Records that the database reported the book as borrowed. Applied at once: the status was committed by
+     * someone else, whatever becomes of the current transaction.
+     */
+    public void markBorrowed(Long bookId) {
+        borrowed.put(bookId, Boolean.TRUE);
+    }
+
+    public void markAvailable(Long bookId) {
+        AfterCommit.run(() -> borrowed.invalidate(bookId));
+    }
+}
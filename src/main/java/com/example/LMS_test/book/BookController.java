@@ -1,22 +1,55 @@
 package com.example.LMS_test.book;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 
 @RestController
 @RequestMapping("/api/books")
 @RequiredArgsConstructor
 public class BookController {
+    private static final String NDJSON = "application/x-ndjson";
+
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final BookSearchIndex bookSearchIndex;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public ResponseEntity<List<Book>> getAllBooks() {
-        return ResponseEntity.ok(bookService.getAll());
+    public ResponseEntity<BookPage> getBooks(@RequestParam(defaultValue = "0") Long after,
+                                             @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(bookService.getPage(after, size));
+    }
+
+    @GetMapping(value = "/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamBooks(@RequestParam(defaultValue = "500") int batchSize) {
+        StreamingResponseBody body = outputStream -> bookService.forEachPage(batchSize, books -> {
+            try {
+                for (Book book : books) {
+                    outputStream.write(objectMapper.writeValueAsBytes(book));
+                    outputStream.write('\n');
+                }
+                outputStream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().header("Content-Type", NDJSON).body(body);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<BookSearchResult> searchBooks(@RequestParam String q,
+                                                        @RequestParam(defaultValue = "0") int page,
+                                                        @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(bookSearchIndex.search(q, page, size));
     }
 
     @GetMapping("/{id}")
@@ -24,6 +57,13 @@ public class BookController {
         return ResponseEntity.ok(bookService.getById(id));
     }
 
+    // Raw request body, read line by line while importing so the file is never held in memory
+    @PostMapping("/import")
+    public ResponseEntity<BookImportResult> importBooks(@RequestParam(defaultValue = "csv") String format,
+                                                        InputStream body) {
+        return ResponseEntity.ok(bookImportService.importBooks(body, BookImportFormat.from(format)));
+    }
+
     @PostMapping
     public ResponseEntity<Book> createBook(@Valid @RequestBody BookRequest bookRequest) {
         Book createdBook = bookService.create(bookRequest);
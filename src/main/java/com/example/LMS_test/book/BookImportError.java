@@ -0,0 +1,14 @@
+package com.example.LMS_test.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportError {
+    // 1-based line number in the uploaded file
+    private long line;
+    private String message;
+}
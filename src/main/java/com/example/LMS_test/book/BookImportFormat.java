@@ -0,0 +1,18 @@
+package com.example.LMS_test.book;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public enum BookImportFormat {
+    CSV,
+    JSONL;
+
+    public static BookImportFormat from(String value) {
+        for (BookImportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported import format: " + value);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.LMS_test.book;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BookImportResult {
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private long imported;
+    private long duplicates;
+    private long failed;
+
+    // Only the first MAX_REPORTED_ERRORS are listed, "failed" has the full count
+    private List<BookImportError> errors = new ArrayList<>();
+
+    void addError(long line, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new BookImportError(line, message));
+        }
+    }
+}
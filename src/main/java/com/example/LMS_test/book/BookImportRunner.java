@@ -0,0 +1,57 @@
+package com.example.LMS_test.book;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command-line import: {@code --import-books=<file>} loads the file and exits, with status 1 if any row failed.
+ * The format follows the extension (.jsonl/.ndjson, anything else is read as CSV) unless
+ * {@code --import-format=csv|jsonl} is given. Best combined with {@code --spring.main.web-application-type=none}.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookImportRunner implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(BookImportRunner.class);
+
+    private final BookImportService bookImportService;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        List<String> files = args.getOptionValues("import-books");
+        if (files == null || files.isEmpty()) {
+            return;
+        }
+        Path file = Path.of(files.get(0));
+        List<String> formats = args.getOptionValues("import-format");
+        BookImportFormat format = formats != null && !formats.isEmpty()
+                ? BookImportFormat.from(formats.get(0))
+                : formatOf(file);
+
+        logger.info("Importing books from {} as {}", file, format);
+        BookImportResult result;
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            result = bookImportService.importBooks(inputStream, format);
+        }
+        result.getErrors().forEach(error -> logger.warn("Line {}: {}", error.getLine(), error.getMessage()));
+        int exitCode = result.getFailed() == 0 ? 0 : 1;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+
+    private static BookImportFormat formatOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".jsonl") || name.endsWith(".ndjson") ? BookImportFormat.JSONL : BookImportFormat.CSV;
+    }
+}
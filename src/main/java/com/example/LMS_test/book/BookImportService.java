@@ -0,0 +1,293 @@
+package com.example.LMS_test.book;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a CSV or JSON-lines catalog file into the book table. Rows are parsed and validated one at a time
+ * with the {@link BookRequest} rules, collected into chunks and each chunk is inserted in its own transaction,
+ * which Hibernate sends as JDBC batches. A bad row is reported with its line number and never fails the import;
+ * a chunk the database rejects is retried in halves until only the offending rows are left.
+ * <p>
+ * CSV input needs a header row naming the columns (title, author, isbn, publishDate); quoted fields may contain
+ * commas and doubled quotes but not line breaks.
+ */
+@Service
+@RequiredArgsConstructor
+public class BookImportService {
+    private static final Logger logger = LoggerFactory.getLogger(BookImportService.class);
+
+    private final BookRepository bookRepository;
+    private final BookSearchIndex searchIndex;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
+
+    @Value("${book.import.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    public BookImportResult importBooks(InputStream inputStream, BookImportFormat format) {
+        long start = System.nanoTime();
+        BookImportResult result = new BookImportResult();
+        // Keys of (title, author, isbn) accepted into the current chunk, mirrors the title_author_unique constraint.
+        // Earlier chunks are committed by then, so their rows are found by the chunk's lookup of existing books.
+        Set<String> seenKeys = new HashSet<>();
+        List<PendingBook> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            Map<String, Integer> columns = format == BookImportFormat.CSV ? readHeader(reader) : Map.of();
+            long lineNumber = format == BookImportFormat.CSV ? 1 : 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                BookRequest request;
+                try {
+                    request = format == BookImportFormat.CSV ? parseCsvRow(line, columns) : parseJsonRow(line);
+                } catch (IllegalArgumentException e) {
+                    result.addError(lineNumber, e.getMessage());
+                    continue;
+                }
+                String violations = validate(request);
+                if (violations != null) {
+                    result.addError(lineNumber, violations);
+                    continue;
+                }
+                String key = uniqueKey(request.getTitle(), request.getAuthor(), request.getIsbn());
+                if (key != null && !seenKeys.add(key)) {
+                    result.setDuplicates(result.getDuplicates() + 1);
+                    continue;
+                }
+                chunk.add(new PendingBook(lineNumber, key, request));
+                if (chunk.size() >= chunkSize) {
+                    flush(chunk, result);
+                    seenKeys.clear();
+                }
+            }
+            flush(chunk, result);
+        } catch (IOException e) {
+            logger.error("Book import aborted while reading input", e);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Could not read import data");
+        } finally {
+            if (result.getImported() > 0) {
+                Cache pages = cacheManager.getCache(BookService.BOOK_PAGES_CACHE);
+                if (pages != null) {
+                    pages.clear();
+                }
+            }
+        }
+
+        logger.info("Book import finished in {} ms: {} imported, {} duplicates, {} failed",
+                (System.nanoTime() - start) / 1_000_000, result.getImported(), result.getDuplicates(), result.getFailed());
+        return result;
+    }
+
+    private void flush(List<PendingBook> chunk, BookImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        insert(chunk, result);
+        chunk.clear();
+    }
+
+    private void insert(List<PendingBook> rows, BookImportResult result) {
+        List<Book> saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                Set<String> existingKeys = existingKeys(rows);
+                // Built per attempt: a rolled back attempt leaves its entities with ids that were never stored
+                List<Book> books = rows.stream()
+                        .filter(pending -> pending.key() == null || !existingKeys.contains(pending.key()))
+                        .map(pending -> toBook(pending.request()))
+                        .toList();
+                return bookRepository.saveAll(books);
+            });
+        } catch (DataAccessException e) {
+            if (rows.size() > 1) {
+                // Halving finds the offending rows in a logarithmic number of transactions per bad row
+                int half = rows.size() / 2;
+                insert(rows.subList(0, half), result);
+                insert(rows.subList(half, rows.size()), result);
+                return;
+            }
+            String reason = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            logger.warn("Book import row on line {} rejected: {}", rows.get(0).line(), reason);
+            result.addError(rows.get(0).line(), "Rejected by the database: " + reason);
+            return;
+        }
+
+        for (Book book : saved) {
+            searchIndex.index(book);
+        }
+        result.setImported(result.getImported() + saved.size());
+        result.setDuplicates(result.getDuplicates() + rows.size() - saved.size());
+    }
+
+    // One IN query per chunk instead of a lookup per row
+    private Set<String> existingKeys(List<PendingBook> chunk) {
+        Set<String> isbns = chunk.stream()
+                .filter(pending -> pending.key() != null)
+                .map(pending -> pending.request().getIsbn())
+                .collect(Collectors.toSet());
+        if (isbns.isEmpty()) {
+            return Set.of();
+        }
+        return bookRepository.findByIsbnIn(isbns).stream()
+                .map(book -> uniqueKey(book.getTitle(), book.getAuthor(), book.getIsbn()))
+                .collect(Collectors.toSet());
+    }
+
+    private String validate(BookRequest request) {
+        Set<ConstraintViolation<BookRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private Map<String, Integer> readHeader(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            return Map.of();
+        }
+        if (header.startsWith("\uFEFF")) { // UTF-8 byte order mark written by some spreadsheet tools
+            header = header.substring(1);
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsv(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("title", "author", "isbn", "publishdate")) {
+            if (!columns.containsKey(required)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header is missing column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private BookRequest parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> fields = splitCsv(line);
+        return new BookRequest(
+                field(fields, columns.get("title")),
+                field(fields, columns.get("author")),
+                field(fields, columns.get("isbn")),
+                parseDate(field(fields, columns.get("publishdate"))));
+    }
+
+    private BookRequest parseJsonRow(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+        return new BookRequest(
+                text(node, "title"),
+                text(node, "author"),
+                text(node, "isbn"),
+                parseDate(text(node, "publishDate")));
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText().trim();
+    }
+
+    private static String field(List<String> fields, int index) {
+        if (index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Publish date must be formatted as yyyy-MM-dd");
+        }
+    }
+
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static Book toBook(BookRequest request) {
+        return new Book(request.getTitle(), request.getAuthor(), request.getIsbn(), request.getPublishDate(),
+                BookStatus.AVAILABLE, null);
+    }
+
+    // Null when the ISBN is missing: the database treats NULLs as distinct, so such rows can never collide
+    private static String uniqueKey(String title, String author, String isbn) {
+        return isbn == null ? null : title + '\u0000' + author + '\u0000' + isbn;
+    }
+
+    private record PendingBook(long line, String key, BookRequest request) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.LMS_test.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookPage {
+    private List<Book> content;
+
+    // Id of the last book in this page, pass it as "after" to fetch the next one; null on the last page
+    private Long nextCursor;
+}
@@ -1,8 +1,24 @@
 package com.example.LMS_test.book;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface BookRepository extends JpaRepository<Book, Long> {
 
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<Book> findByIsbnIn(Collection<String> isbns);
 
+    // Changes the status without loading the book first; matches no row if the book is no longer in the expected status
+    @Modifying
+    @Query("""
+            update Book b
+            set b.bookStatus = :to, b.version = b.version + 1, b.lastModificationDate = local datetime
+            where b.id = :id and b.bookStatus = :from""")
+    int updateStatus(Long id, BookStatus from, BookStatus to);
 }
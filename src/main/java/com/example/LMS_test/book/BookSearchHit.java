@@ -0,0 +1,16 @@
+package com.example.LMS_test.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSearchHit {
+    private Long id;
+    private String title;
+    private String author;
+    private String isbn;
+    private int score;
+}
@@ -0,0 +1,147 @@
+package com.example.LMS_test.book;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-process inverted index over book title, author and ISBN.
+ * <p>
+ * Terms are kept in a sorted map so every query term is matched as a prefix (typeahead), with exact term
+ * matches and ISBN/title hits ranked above author hits. A book must match every query term to be returned.
+ * Reads are lock-free; writes are serialized, which is fine for the rate at which the catalog changes.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(BookSearchIndex.class);
+
+    private static final int ISBN_WEIGHT = 5;
+    private static final int TITLE_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int EXACT_MATCH_MULTIPLIER = 2;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int WARM_UP_BATCH_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+
+    // term -> (book id -> field weight)
+    private final ConcurrentSkipListMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, BookSearchHit> documents = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long cursor = 0L;
+        List<Book> books;
+        do {
+            books = bookRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(WARM_UP_BATCH_SIZE));
+            books.forEach(this::index);
+            if (!books.isEmpty()) {
+                cursor = books.get(books.size() - 1).getId();
+            }
+        } while (books.size() == WARM_UP_BATCH_SIZE);
+        logger.info("Book search index built with {} books and {} terms", documents.size(), postings.size());
+    }
+
+    public synchronized void index(Book book) {
+        remove(book.getId());
+        BookSearchHit document = new BookSearchHit(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(), 0);
+        termWeights(document).forEach((term, weight) ->
+                postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>()).put(book.getId(), weight));
+        documents.put(book.getId(), document);
+    }
+
+    public synchronized void remove(Long bookId) {
+        BookSearchHit document = documents.remove(bookId);
+        if (document == null) {
+            return;
+        }
+        for (String term : termWeights(document).keySet()) {
+            postings.computeIfPresent(term, (t, ids) -> {
+                ids.remove(bookId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    public BookSearchResult search(String query, int page, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        int pageNumber = Math.max(page, 0);
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return new BookSearchResult(Collections.emptyList(), 0, pageNumber, pageSize);
+        }
+
+        Map<Long, Integer> scores = null;
+        for (String term : terms) {
+            Map<Long, Integer> termScores = scoreTerm(term);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((id, score) -> score + termScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+
+        List<BookSearchHit> hits = new ArrayList<>(scores.size());
+        scores.forEach((id, score) -> {
+            BookSearchHit document = documents.get(id);
+            if (document != null) {
+                hits.add(new BookSearchHit(id, document.getTitle(), document.getAuthor(), document.getIsbn(), score));
+            }
+        });
+        hits.sort(Comparator.comparingInt(BookSearchHit::getScore).reversed()
+                .thenComparing(BookSearchHit::getId));
+
+        int from = Math.min(pageNumber * pageSize, hits.size());
+        int to = Math.min(from + pageSize, hits.size());
+        return new BookSearchResult(new ArrayList<>(hits.subList(from, to)), hits.size(), pageNumber, pageSize);
+    }
+
+    private Map<Long, Integer> scoreTerm(String term) {
+        Map<Long, Integer> scores = new HashMap<>();
+        postings.subMap(term, true, term + Character.MAX_VALUE, true).forEach((indexedTerm, ids) -> {
+            int multiplier = indexedTerm.equals(term) ? EXACT_MATCH_MULTIPLIER : 1;
+            ids.forEach((id, weight) -> scores.merge(id, weight * multiplier, Math::max));
+        });
+        return scores;
+    }
+
+    private Map<String, Integer> termWeights(BookSearchHit document) {
+        Map<String, Integer> weights = new HashMap<>();
+        tokenize(document.getTitle()).forEach(term -> weights.merge(term, TITLE_WEIGHT, Math::max));
+        tokenize(document.getAuthor()).forEach(term -> weights.merge(term, AUTHOR_WEIGHT, Math::max));
+        tokenize(document.getIsbn()).forEach(term -> weights.merge(term, ISBN_WEIGHT, Math::max));
+        return weights;
+    }
+
+    private List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> terms = new ArrayList<>();
+        for (String term : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+}
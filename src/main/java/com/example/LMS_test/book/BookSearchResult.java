@@ -0,0 +1,17 @@
+package com.example.LMS_test.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSearchResult {
+    private List<BookSearchHit> hits;
+    private int total;
+    private int page;
+    private int size;
+}
@@ -4,28 +4,68 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class BookService {
     private static final Logger logger = LoggerFactory.getLogger(BookService.class);
+
+    static final String BOOKS_CACHE = "books";
+    static final String BOOK_PAGES_CACHE = "bookPages";
+
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final BookRepository bookRepository;
+    private final BookSearchIndex searchIndex;
+    private final CacheManager cacheManager;
 
-    @Cacheable("books")
-    public List<Book> getAll() {
-        return bookRepository.findAll();
+    @Cacheable(value = BOOK_PAGES_CACHE, key = "#afterId + ':' + #size")
+    public BookPage getPage(Long afterId, int size) {
+        int pageSize = clampPageSize(size);
+        List<Book> books = bookRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize));
+        Long nextCursor = books.size() < pageSize ? null : books.get(books.size() - 1).getId();
+        return new BookPage(books, nextCursor);
     }
 
-    @Cacheable(value = "books", key = "#id")
+    /**
+     * Walks the whole catalog in id order, handing each page to the consumer before the next one is loaded,
+     * so only a single page is held in memory at a time. Bypasses the page cache on purpose.
+     */
+    public void forEachPage(int size, Consumer<List<Book>> consumer) {
+        int pageSize = clampPageSize(size);
+        long cursor = 0L;
+        List<Book> books;
+        do {
+            books = bookRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(pageSize));
+            if (!books.isEmpty()) {
+                consumer.accept(books);
+                cursor = books.get(books.size() - 1).getId();
+            }
+        } while (books.size() == pageSize);
+    }
+
+    private int clampPageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    // sync: concurrent misses for one id wait for a single load instead of all querying the database
+    @Cacheable(value = BOOKS_CACHE, key = "#id", sync = true)
     public Book getById(Long id) {
         return bookRepository.findById(id).orElseThrow(() -> {
             logger.warn("Book with id {} not found", id);
@@ -33,7 +73,7 @@ public class BookService {
         });
     }
 
-    @CacheEvict(value = "books", allEntries = true)
+    @CacheEvict(value = BOOK_PAGES_CACHE, allEntries = true)
     @Transactional
     public Book create(BookRequest bookRequest) {
         logger.debug("Creating new book with title: {}", bookRequest.getTitle());
@@ -52,7 +92,9 @@ public class BookService {
                     bookRequest.getPublishDate(),
                     BookStatus.AVAILABLE,
                     null);
-            Book savedBook = bookRepository.save(book);
+            // Flushed here: sequence ids let the insert wait for commit, where this catch could not see a duplicate
+            Book savedBook = bookRepository.saveAndFlush(book);
+            AfterCommit.run(() -> searchIndex.index(savedBook));
             logger.info("Created book with ID: {}", savedBook.getId());
             return savedBook;
         } catch (DataIntegrityViolationException e) {
@@ -65,7 +107,8 @@ public class BookService {
     }
 
 
-    @CacheEvict(value = "books", allEntries = true)
+    @Caching(put = @CachePut(value = BOOKS_CACHE, key = "#id"),
+            evict = @CacheEvict(value = BOOK_PAGES_CACHE, allEntries = true))
     @Transactional
     public Book update(Long id, BookRequest bookRequest) {
         logger.debug("Updating book with ID: {}", id);
@@ -83,7 +126,9 @@ public class BookService {
                 book.setPublishDate(bookRequest.getPublishDate());
             }
             try {
-                return bookRepository.save(book);
+                Book updatedBook = bookRepository.saveAndFlush(book);
+                AfterCommit.run(() -> searchIndex.index(updatedBook));
+                return updatedBook;
             } catch (DataIntegrityViolationException e) {
                 logger.error("Unique constraint violation during update for book ID: {}", id, e);
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A book with the same title and author already exists.");
@@ -91,7 +136,9 @@ public class BookService {
         }).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found"));
     }
 
-    @CacheEvict(value = "books", allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(value = BOOKS_CACHE, key = "#id"),
+            @CacheEvict(value = BOOK_PAGES_CACHE, allEntries = true)})
     public void delete(Long id) {
         logger.debug("Deleting book with ID: {}", id);
         Book book = bookRepository.findById(id)
@@ -100,6 +147,29 @@ public class BookService {
                     return new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found");
                 });
         bookRepository.delete(book);
+        searchIndex.remove(id);
         logger.info("Successfully deleted book with ID {}, title: {}", id, book.getTitle());
     }
+
+    /**
+     * Drops the cached copies of a book after a status change made by the borrow/return path, which writes
+     * through the repository and would otherwise leave {@link #getById} serving the old status until expiry.
+     * The next read loads the row with its current version and modification date. Only the pages listing the
+     * book are dropped. Applied after commit so a rolled back borrow never shows up in the cache.
+     */
+    public void evictCachedBook(Long bookId) {
+        AfterCommit.run(() -> {
+            Cache books = cacheManager.getCache(BOOKS_CACHE);
+            if (books != null) {
+                books.evict(bookId);
+            }
+            Cache pages = cacheManager.getCache(BOOK_PAGES_CACHE);
+            if (pages instanceof CaffeineCache caffeinePages) {
+                caffeinePages.getNativeCache().asMap().values().removeIf(page -> page instanceof BookPage bookPage
+                        && bookPage.getContent().stream().anyMatch(book -> bookId.equals(book.getId())));
+            } else if (pages != null) {
+                pages.clear();
+            }
+        });
+    }
 }
@@ -0,0 +1,31 @@
+package com.example.LMS_test.borrow;
+
+import com.example.LMS_test.book.BookStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Everything {@link BorrowingService#borrow} needs to accept or reject a request, read in one statement
+ * by {@link BorrowingRecordRepository#findEligibility}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowEligibility {
+    private BookStatus bookStatus;
+    private boolean patronExists;
+
+    // Borrow date of the patron's most recent unreturned loan, null if everything has been returned
+    private LocalDate openLoanBorrowDate;
+
+    // End of the patron's longest active ban, null if not banned
+    private LocalDate banUntil;
+
+    // Used by the JPQL constructor expression, count(...) comes back as a Long
+    public BorrowEligibility(BookStatus bookStatus, Long patronCount, LocalDate openLoanBorrowDate, LocalDate banUntil) {
+        this(bookStatus, patronCount != null && patronCount > 0, openLoanBorrowDate, banUntil);
+    }
+}
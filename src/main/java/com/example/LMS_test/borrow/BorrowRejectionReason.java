@@ -0,0 +1,17 @@
+package com.example.LMS_test.borrow;
+
+public enum BorrowRejectionReason {
+    UNAVAILABLE("unavailable"),
+    UNRETURNED("unreturned"),
+    BANNED("banned");
+
+    private final String tag;
+
+    BorrowRejectionReason(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
@@ -4,20 +4,33 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/borrow")
 @RequiredArgsConstructor
 public class BorrowingController {
-    private final BorrowingService borrowingService;
+    private final BorrowingCoordinator borrowingCoordinator;
+    private final BorrowingGroupCommitter borrowingGroupCommitter;
 
     @PostMapping("/{bookId}/patron/{patronId}")
     public ResponseEntity<BorrowingRecord> borrowBook(@PathVariable Long bookId, @PathVariable Long patronId) {
-        return ResponseEntity.ok(borrowingService.borrow(bookId, patronId));
+        return ResponseEntity.ok(borrowingGroupCommitter.borrow(bookId, patronId));
     }
 
     @PutMapping("/return/{bookId}/patron/{patronId}")
     public ResponseEntity<BorrowingRecord> returnBook(@PathVariable Long bookId, @PathVariable Long patronId) {
-        return ResponseEntity.ok(borrowingService.returnBook(bookId, patronId));
+        return ResponseEntity.ok(borrowingGroupCommitter.returnBook(bookId, patronId));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<BorrowingResult>> borrowBooks(@RequestBody List<BorrowingRequest> requests) {
+        return ResponseEntity.ok(borrowingCoordinator.borrowBatch(requests));
+    }
+
+    @PutMapping("/return/batch")
+    public ResponseEntity<List<BorrowingResult>> returnBooks(@RequestBody List<BorrowingRequest> requests) {
+        return ResponseEntity.ok(borrowingCoordinator.returnBatch(requests));
     }
 }
 
@@ -0,0 +1,94 @@
+package com.example.LMS_test.borrow;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs each {@link BorrowingService} operation in a transaction of its own and retries it when it loses a race
+ * with a concurrent write: an optimistic lock failure on a stale {@code @Version}, a lock timeout or a deadlock.
+ * Attempts are spaced by a jittered exponential backoff so colliding requests do not collide again, and a request
+ * that still conflicts after {@code borrowing.retry.max-attempts} is answered with 409 rather than 500.
+ * <p>
+ * Borrows hold the {@link PatronLocks} of their patrons for the whole transaction, commit included.
+ * <p>
+ * Must be called outside a transaction, otherwise the retry would run inside the one that already failed.
+ */
+@Service
+@RequiredArgsConstructor
+public class BorrowingCoordinator {
+    private static final Logger logger = LoggerFactory.getLogger(BorrowingCoordinator.class);
+
+    private final BorrowingService borrowingService;
+    private final BorrowingMetrics borrowingMetrics;
+    private final PatronLocks patronLocks;
+
+    @Value("${borrowing.retry.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    @Value("${borrowing.retry.initial-backoff-ms:5}")
+    private long initialBackoffMillis = 5;
+
+    @Value("${borrowing.retry.max-backoff-ms:100}")
+    private long maxBackoffMillis = 100;
+
+    public BorrowingRecord borrow(Long bookId, Long patronId) {
+        return withRetry("borrow", () -> patronLocks.withLock(patronId, () -> borrowingService.borrow(bookId, patronId)));
+    }
+
+    public BorrowingRecord returnBook(Long bookId, Long patronId) {
+        return withRetry("return", () -> borrowingService.returnBook(bookId, patronId));
+    }
+
+    public List<BorrowingResult> borrowBatch(List<BorrowingRequest> requests) {
+        // Null items are left for the service to reject with a 400
+        List<Long> patronIds = requests == null ? List.of() : requests.stream()
+                .filter(Objects::nonNull)
+                .map(BorrowingRequest::getPatronId)
+                .toList();
+        return withRetry("batch borrow", () -> patronLocks.withLocks(patronIds, () -> borrowingService.borrowBatch(requests)));
+    }
+
+    public List<BorrowingResult> returnBatch(List<BorrowingRequest> requests) {
+        return withRetry("batch return", () -> borrowingService.returnBatch(requests));
+    }
+
+    private <T> T withRetry(String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    logger.warn("{} still conflicting after {} attempts: {}", operation, attempt, e.getMessage());
+                    borrowingMetrics.recordConflictFailure();
+                    throw new ResponseStatusException(HttpStatus.CONFLICT,
+                            "The request conflicted with a concurrent update, please retry", e);
+                }
+                borrowingMetrics.recordConflictRetry();
+                logger.debug("{} conflicted with a concurrent update, attempt {} of {}", operation, attempt, maxAttempts);
+                backOff(operation, attempt);
+            }
+        }
+    }
+
+    // Full jitter: a random wait up to initial * 2^(attempt - 1), capped
+    private void backOff(String operation, int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while retrying " + operation);
+        }
+    }
+}
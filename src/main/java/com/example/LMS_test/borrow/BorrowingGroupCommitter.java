@@ -0,0 +1,220 @@
+package com.example.LMS_test.borrow;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent single borrows (and, separately, single returns) into group commits. A request waits at
+ * most {@code borrowing.group-commit.window-ms} for others to join it, or until {@code max-batch} have, and the
+ * group then goes through the batch path of {@link BorrowingCoordinator} as one transaction: one commit, and one
+ * log flush, instead of one per request. Items are still validated one by one inside that transaction, so each
+ * caller gets its own record or its own error, with the status the single-item path would have answered.
+ * <p>
+ * Each operation has one flusher thread. While a group commits the next one fills up, so groups grow with load
+ * and a request on an idle server only pays the window. A request left alone in its group, or in a group that
+ * failed as a whole (for instance by running out of conflict retries), is run on its own by the caller's thread.
+ * <p>
+ * A request gives up waiting after the window plus {@code borrowing.group-commit.commit-timeout-ms}: if its group
+ * has not been taken yet it runs alone, otherwise its group is still committing and it answers {@code 503}.
+ * <p>
+ * Off unless {@code borrowing.group-commit.enabled}; when off, when the queue is full, or once shut down, requests
+ * go straight to the coordinator.
+ */
+@Component
+public class BorrowingGroupCommitter {
+    private static final Logger logger = LoggerFactory.getLogger(BorrowingGroupCommitter.class);
+
+    private final BorrowingCoordinator borrowingCoordinator;
+    private final BorrowingMetrics borrowingMetrics;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final long waitTimeoutNanos;
+    private final int maxBatch;
+    private final Lane borrows;
+    private final Lane returns;
+
+    public BorrowingGroupCommitter(BorrowingCoordinator borrowingCoordinator,
+                                   BorrowingMetrics borrowingMetrics,
+                                   @Value("${borrowing.group-commit.enabled:false}") boolean enabled,
+                                   @Value("${borrowing.group-commit.window-ms:2}") long windowMillis,
+                                   @Value("${borrowing.group-commit.max-batch:50}") int maxBatch,
+                                   @Value("${borrowing.group-commit.queue-capacity:1000}") int queueCapacity,
+                                   @Value("${borrowing.group-commit.commit-timeout-ms:5000}") long commitTimeoutMillis) {
+        this.borrowingCoordinator = borrowingCoordinator;
+        this.borrowingMetrics = borrowingMetrics;
+        this.enabled = enabled;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.waitTimeoutNanos = windowNanos + TimeUnit.MILLISECONDS.toNanos(commitTimeoutMillis);
+        this.maxBatch = Math.max(1, Math.min(maxBatch, BorrowingService.MAX_BATCH_SIZE));
+        this.borrows = new Lane("borrow", borrowingCoordinator::borrowBatch, queueCapacity);
+        this.returns = new Lane("return", borrowingCoordinator::returnBatch, queueCapacity);
+        if (enabled) {
+            borrows.start();
+            returns.start();
+        }
+    }
+
+    public BorrowingRecord borrow(Long bookId, Long patronId) {
+        Supplier<BorrowingRecord> alone = () -> borrowingCoordinator.borrow(bookId, patronId);
+        return enabled ? borrows.submit(new BorrowingRequest(bookId, patronId), alone) : alone.get();
+    }
+
+    public BorrowingRecord returnBook(Long bookId, Long patronId) {
+        Supplier<BorrowingRecord> alone = () -> borrowingCoordinator.returnBook(bookId, patronId);
+        return enabled ? returns.submit(new BorrowingRequest(bookId, patronId), alone) : alone.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        borrows.stop();
+        returns.stop();
+    }
+
+    // A null result tells the caller to run its request alone
+    private record Pending(BorrowingRequest request, long enqueuedNanos, CompletableFuture<BorrowingResult> result) {
+    }
+
+    private final class Lane implements Runnable {
+        private final String operation;
+        private final Function<List<BorrowingRequest>, List<BorrowingResult>> commit;
+        private final BlockingQueue<Pending> queue;
+        private final Thread flusher;
+        private volatile boolean stopped;
+
+        private Lane(String operation, Function<List<BorrowingRequest>, List<BorrowingResult>> commit, int queueCapacity) {
+            this.operation = operation;
+            this.commit = commit;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.flusher = new Thread(this, "group-commit-" + operation);
+            this.flusher.setDaemon(true);
+        }
+
+        private void start() {
+            flusher.start();
+        }
+
+        private void stop() {
+            stopped = true;
+            flusher.interrupt();
+        }
+
+        private BorrowingRecord submit(BorrowingRequest request, Supplier<BorrowingRecord> alone) {
+            if (stopped) {
+                return alone.get();
+            }
+            Pending pending = new Pending(request, System.nanoTime(), new CompletableFuture<>());
+            if (!queue.offer(pending)) {
+                logger.debug("Group commit queue for {} is full, running the request alone", operation);
+                return alone.get();
+            }
+            // Stopped while offering: the flusher may already have drained the queue for the last time
+            if (stopped && queue.remove(pending)) {
+                return alone.get();
+            }
+
+            BorrowingResult result;
+            try {
+                result = pending.result().get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (queue.remove(pending)) {
+                    logger.warn("Group commit for {} did not take the request in time, running it alone", operation);
+                    return alone.get();
+                }
+                logger.warn("Group commit for {} did not finish in time", operation);
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Timed out waiting for the " + operation + " to commit");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for the " + operation + " to commit");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+
+            if (result == null) {
+                return alone.get();
+            }
+            if (!result.isSuccess()) {
+                throw new ResponseStatusException(HttpStatus.valueOf(result.getStatus()), result.getMessage());
+            }
+            return result.getBorrowingRecord();
+        }
+
+        @Override
+        public void run() {
+            List<Pending> group = new ArrayList<>(maxBatch);
+            try {
+                while (true) {
+                    collect(group);
+                    flush(group);
+                    group.clear();
+                }
+            } catch (InterruptedException e) {
+                ResponseStatusException shuttingDown = new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server is shutting down");
+                queue.drainTo(group);
+                group.forEach(pending -> pending.result().completeExceptionally(shuttingDown));
+            }
+        }
+
+        // Blocks for the first request, then gathers the others until the group is full or the first one has
+        // waited a whole window, so no request is held for longer than the window plus the commit ahead of it
+        private void collect(List<Pending> group) throws InterruptedException {
+            Pending first = queue.take();
+            group.add(first);
+            long deadline = first.enqueuedNanos() + windowNanos;
+            while (group.size() < maxBatch) {
+                queue.drainTo(group, maxBatch - group.size());
+                long remaining = deadline - System.nanoTime();
+                if (group.size() >= maxBatch || remaining <= 0) {
+                    return;
+                }
+                Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    return;
+                }
+                group.add(next);
+            }
+        }
+
+        private void flush(List<Pending> group) {
+            long start = System.nanoTime();
+            group.forEach(pending -> borrowingMetrics.recordGroupCommitWait(operation, start - pending.enqueuedNanos()));
+            borrowingMetrics.recordGroupCommit(operation, group.size());
+            // Alone, the request takes the single-item path, guarded updates and all
+            if (group.size() == 1) {
+                group.get(0).result().complete(null);
+                return;
+            }
+
+            List<BorrowingResult> results;
+            try {
+                results = commit.apply(group.stream().map(Pending::request).toList());
+            } catch (RuntimeException e) {
+                logger.warn("Group {} of {} requests failed, running them one by one: {}", operation, group.size(), e.getMessage());
+                group.forEach(pending -> pending.result().complete(null));
+                return;
+            }
+            for (int i = 0; i < group.size(); i++) {
+                group.get(i).result().complete(results.get(i));
+            }
+            logger.debug("Committed a group of {} {} requests", group.size(), operation);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.LMS_test.borrow;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts borrow requests turned down by a business rule, tagged by reason, so the rejection mix can be
+ * read from the metrics endpoint instead of the log file.
+ */
+@Component
+public class BorrowingMetrics {
+    private final MeterRegistry meterRegistry;
+    private final Map<BorrowRejectionReason, Counter> rejections = new EnumMap<>(BorrowRejectionReason.class);
+    private final Counter conflictRetries;
+    private final Counter conflictFailures;
+
+    public BorrowingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        conflictRetries = Counter.builder("lms.borrow.conflict.retries")
+                .description("Borrow and return attempts retried after a concurrent update")
+                .register(meterRegistry);
+        conflictFailures = Counter.builder("lms.borrow.conflict.failures")
+                .description("Borrow and return requests answered 409 after running out of retries")
+                .register(meterRegistry);
+        // Registered up front so every reason reports 0 before its first rejection
+        for (BorrowRejectionReason reason : BorrowRejectionReason.values()) {
+            rejections.put(reason, Counter.builder("lms.borrow.rejections")
+                    .description("Borrow requests rejected by a business rule")
+                    .tag("reason", reason.getTag())
+                    .register(meterRegistry));
+        }
+    }
+
+    public void recordRejection(BorrowRejectionReason reason) {
+        rejections.get(reason).increment();
+    }
+
+    public void recordConflictRetry() {
+        conflictRetries.increment();
+    }
+
+    public void recordConflictFailure() {
+        conflictFailures.increment();
+    }
+
+    public void recordGroupCommit(String operation, int size) {
+        DistributionSummary.builder("lms.borrow.group.size")
+                .description("Single borrow or return requests committed together in one transaction")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(size);
+    }
+
+    public void recordGroupCommitWait(String operation, long waitNanos) {
+        Timer.builder("lms.borrow.group.wait")
+                .description("Time a coalesced request spent queued before its group started committing")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -3,7 +3,7 @@ package com.example.LMS_test.borrow;
 import com.example.LMS_test.baseEntity.BaseEntity;
 import com.example.LMS_test.book.Book;
 import com.example.LMS_test.patron.Patron;
-import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,20 +13,31 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 
 @Entity
+@Table(uniqueConstraints = {
+        // At most one open loan per patron, enforced by the database across all nodes
+        @UniqueConstraint(name = "uk_borrowing_open_patron", columnNames = "openPatronId")
+}, indexes = {
+        // Patron's open loan (eligibility check, batch borrow), newest first
+        @Index(name = "idx_borrowing_patron_return_borrow", columnList = "patron_id, returnDate, borrowDate"),
+        // Open loan of a book (return, batch return)
+        @Index(name = "idx_borrowing_book_return", columnList = "book_id, returnDate"),
+        // Open loans by age (overdue detection)
+        @Index(name = "idx_borrowing_return_borrow", columnList = "returnDate, borrowDate")
+})
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class BorrowingRecord extends BaseEntity {
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id", nullable = false)
-    @JsonBackReference
+    @JsonIgnore
     private Book book;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patron_id", nullable = false)
-    @JsonBackReference
+    @JsonIgnore
     private Patron patron;
 
     @Column(
@@ -36,6 +47,10 @@ public class BorrowingRecord extends BaseEntity {
     private LocalDate borrowDate;
 
     private LocalDate returnDate;
+
+    // The patron's id while the loan is open, null once returned; NULLs never collide in a unique constraint
+    @JsonIgnore
+    private Long openPatronId;
 }
 
 
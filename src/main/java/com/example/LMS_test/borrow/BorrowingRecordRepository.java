@@ -1,12 +1,73 @@
 package com.example.LMS_test.borrow;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface BorrowingRecordRepository extends JpaRepository<BorrowingRecord, Long> {
 
-    Optional<BorrowingRecord> findFirstByPatron_IdAndReturnDateIsNullOrderByBorrowDateDesc(Long patronId);
+    // Borrow path: book status, patron existence, open loan and active ban in a single select; empty if the book does not exist
+    @Query("""
+            select new com.example.LMS_test.borrow.BorrowEligibility(
+                b.bookStatus,
+                (select count(p) from Patron p where p.id = :patronId),
+                (select max(r.borrowDate) from BorrowingRecord r where r.patron.id = :patronId and r.returnDate is null),
+                (select max(br.banUntil) from BanRecord br where br.patron.id = :patronId and br.banUntil > :today))
+            from Book b
+            where b.id = :bookId""")
+    Optional<BorrowEligibility> findEligibility(Long bookId, Long patronId, LocalDate today);
 
+    // Return path: the book is updated, the patron is only referenced by id
+    @EntityGraph(attributePaths = "book")
     Optional<BorrowingRecord> findFirstByPatron_IdAndBook_IdAndReturnDateIsNullOrderByBorrowDateDesc(Long patronId, Long bookId);
+
+    // Return path: matches no row if a concurrent return closed the loan first. Clears the persistence context,
+    // the loaded record is now stale and must not be flushed over the new version
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update BorrowingRecord r
+            set r.returnDate = :returnDate, r.openPatronId = null, r.version = r.version + 1,
+                r.lastModificationDate = local datetime
+            where r.id = :id and r.returnDate is null""")
+    int closeLoan(Long id, LocalDate returnDate);
+
+    // Backfill for loans opened before openPatronId existed: only the patron's newest open loan (latest borrowDate,
+    // then highest id) gets it, so older duplicates cannot break the unique constraint. Matches nothing once done
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update BorrowingRecord r
+            set r.openPatronId = r.patron.id, r.version = r.version + 1
+            where r.returnDate is null and r.openPatronId is null
+              and not exists (select o.id from BorrowingRecord o
+                  where o.patron.id = r.patron.id and o.returnDate is null and o.id <> r.id
+                    and (o.openPatronId is not null or o.borrowDate > r.borrowDate
+                         or (o.borrowDate = r.borrowDate and o.id > r.id)))""")
+    int backfillOpenPatronIds();
+
+    @Query("select r.patron.id from BorrowingRecord r where r.returnDate is null group by r.patron.id having count(r) > 1 order by r.patron.id")
+    List<Long> findPatronIdsWithSeveralOpenLoans();
+
+    List<BorrowingRecord> findByPatron_IdInAndReturnDateIsNull(Collection<Long> patronIds);
+
+    @EntityGraph(attributePaths = "book")
+    List<BorrowingRecord> findByBook_IdInAndReturnDateIsNull(Collection<Long> bookIds);
+
+    // Overdue scan: one range over idx_borrowing_return_borrow, resumed after the (borrowDate, id) of the previous batch.
+    // The modulo splits patrons between scanner instances so two nodes never ban the same patron
+    @Query("""
+            select new com.example.LMS_test.borrow.OverdueLoan(r.id, r.patron.id, r.borrowDate)
+            from BorrowingRecord r
+            where r.returnDate is null and r.borrowDate < :cutoff
+              and (r.borrowDate > :afterDate or (r.borrowDate = :afterDate and r.id > :afterId))
+              and mod(r.patron.id, :partitionCount) = :partition
+            order by r.borrowDate, r.id""")
+    List<OverdueLoan> findOverdueLoans(LocalDate cutoff, LocalDate afterDate, Long afterId,
+                                       int partitionCount, int partition, Limit limit);
 }
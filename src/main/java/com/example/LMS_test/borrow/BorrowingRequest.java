@@ -0,0 +1,13 @@
+package com.example.LMS_test.borrow;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowingRequest {
+    private Long bookId;
+    private Long patronId;
+}
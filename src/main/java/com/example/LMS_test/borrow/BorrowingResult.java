@@ -0,0 +1,31 @@
+package com.example.LMS_test.borrow;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BorrowingResult {
+    private Long bookId;
+    private Long patronId;
+    private boolean success;
+
+    // HTTP status the same request would have produced on the single-item endpoint
+    private int status;
+    private String message;
+
+    private Long borrowingRecordId;
+    private LocalDate borrowDate;
+    private LocalDate returnDate;
+
+    // The saved record, handed back to single requests coalesced by BorrowingGroupCommitter
+    @JsonIgnore
+    private BorrowingRecord borrowingRecord;
+}
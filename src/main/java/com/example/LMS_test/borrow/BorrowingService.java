@@ -3,7 +3,9 @@ package com.example.LMS_test.borrow;
 import com.example.LMS_test.ban.BanRecord;
 import com.example.LMS_test.ban.BanRepository;
 import com.example.LMS_test.book.Book;
+import com.example.LMS_test.book.BookAvailabilityIndex;
 import com.example.LMS_test.book.BookRepository;
+import com.example.LMS_test.book.BookService;
 import com.example.LMS_test.book.BookStatus;
 import com.example.LMS_test.patron.Patron;
 import com.example.LMS_test.patron.PatronRepository;
@@ -11,37 +13,54 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BorrowingService {
     private static final Logger logger = LoggerFactory.getLogger(BorrowingService.class);
 
-    private static final int LOAN_PERIOD_MONTHS = 3;
-    private static final int GRACE_PERIOD_WEEKS = 1;
-    private static final int BAN_PERIOD_MONTHS = 6;
+    static final int MAX_BATCH_SIZE = 100;
 
     private final BookRepository bookRepository;
     private final PatronRepository patronRepository;
     private final BorrowingRecordRepository borrowingRecordRepository;
     private final BanRepository banRepository;
+    private final BookAvailabilityIndex availabilityIndex;
+    private final BookService bookService;
+    private final BorrowingMetrics borrowingMetrics;
 
     @Transactional
     public BorrowingRecord borrow(Long bookId, Long patronId) {
         logger.debug("Starting borrow process for book ID: {} and patron ID: {}", bookId, patronId);
 
         try {
-            Book book = findAndValidateBook(bookId);
-            Patron patron = findAndValidatePatron(patronId);
-            validatePatronEligibility(patron);
+            rejectIfKnownBorrowed(bookId);
+            BorrowEligibility eligibility = borrowingRecordRepository.findEligibility(bookId, patronId, LocalDate.now())
+                    .orElseThrow(() -> {
+                        logger.warn("Book not found: {}", bookId);
+                        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found");
+                    });
+            validateBook(bookId, eligibility);
+            validatePatron(patronId, eligibility);
 
-            BorrowingRecord borrowingRecord = createBorrowingRecord(book, patron);
+            BorrowingRecord borrowingRecord = createBorrowingRecord(bookId, patronId);
             logger.info("Successfully created borrowing record: Book ID: {}, Patron ID: {}, Due Date: {}",
                     bookId, patronId, borrowingRecord.getReturnDate());
 
@@ -52,59 +71,56 @@ public class BorrowingService {
         }
     }
 
-    private Book findAndValidateBook(Long bookId) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> {
-                    logger.warn("Book not found: {}", bookId);
-                    return new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found");
-                });
-
-        if (book.getBookStatus() != BookStatus.AVAILABLE) {
-            logger.warn("Book unavailable: {}, current status: {}", bookId, book.getBookStatus());
+    private void rejectIfKnownBorrowed(Long bookId) {
+        if (availabilityIndex.isKnownBorrowed(bookId)) {
+            logger.warn("Book unavailable according to availability index: {}", bookId);
+            borrowingMetrics.recordRejection(BorrowRejectionReason.UNAVAILABLE);
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Book is currently borrowed");
         }
-
-        return book;
     }
 
-    private Patron findAndValidatePatron(Long patronId) {
-        return patronRepository.findById(patronId)
-                .orElseThrow(() -> {
-                    logger.warn("Patron not found: {}", patronId);
-                    return new ResponseStatusException(HttpStatus.NOT_FOUND, "Patron not found");
-                });
+    // Taken only once the borrow is valid, so a rejected request never holds up a valid one for the same book
+    private void claimBook(Long bookId) {
+        if (!availabilityIndex.tryClaim(bookId)) {
+            logger.warn("Book is being borrowed concurrently on this node: {}", bookId);
+            borrowingMetrics.recordRejection(BorrowRejectionReason.UNAVAILABLE);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Book is currently borrowed");
+        }
     }
 
-    private void validatePatronEligibility(Patron patron) {
-        logger.debug("Validating patron eligibility: {}", patron.getId());
-        checkForUnreturnedBooks(patron);
-        checkForActiveBan(patron);
+    private void validateBook(Long bookId, BorrowEligibility eligibility) {
+        if (eligibility.getBookStatus() != BookStatus.AVAILABLE) {
+            availabilityIndex.markBorrowed(bookId);
+            logger.warn("Book unavailable: {}, current status: {}", bookId, eligibility.getBookStatus());
+            borrowingMetrics.recordRejection(BorrowRejectionReason.UNAVAILABLE);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Book is currently borrowed");
+        }
     }
 
-    private void checkForUnreturnedBooks(Patron patron) {
-        borrowingRecordRepository
-                .findFirstByPatron_IdAndReturnDateIsNullOrderByBorrowDateDesc(patron.getId())
-                .ifPresent(lastBorrowing -> {
-                    LocalDate dueDate = lastBorrowing.getBorrowDate().plusMonths(LOAN_PERIOD_MONTHS);
-                    LocalDate gracePeriodEnd = dueDate.plusWeeks(GRACE_PERIOD_WEEKS);
-
-                    if (LocalDate.now().isAfter(gracePeriodEnd)) {
-                        handleOverdueBan(patron);
-                    } else {
-                        logger.warn("Patron has unreturned book: {}", patron.getId());
-                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                                "You must return your previous book before borrowing again.");
-                    }
-                });
+    private void validatePatron(Long patronId, BorrowEligibility eligibility) {
+        if (!eligibility.isPatronExists()) {
+            logger.warn("Patron not found: {}", patronId);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Patron not found");
+        }
+        logger.debug("Validating patron eligibility: {}", patronId);
+        checkForActiveBan(patronId, eligibility.getBanUntil());
+        checkForUnreturnedBooks(patronId, eligibility.getOpenLoanBorrowDate());
     }
 
-    private void handleOverdueBan(Patron patron) {
-        LocalDate banUntil = LocalDate.now().plusMonths(BAN_PERIOD_MONTHS);
-        BanRecord banRecord = new BanRecord(banUntil, patron);
-        banRepository.save(banRecord);
-        logger.warn("Patron banned for overdue book: {}, ban until: {}", patron.getId(), banUntil);
+    // Read-only: bans for overdue loans are issued by OverdueBanJob, not on the request thread
+    private void checkForUnreturnedBooks(Long patronId, LocalDate openLoanBorrowDate) {
+        if (openLoanBorrowDate == null) {
+            return;
+        }
+        borrowingMetrics.recordRejection(BorrowRejectionReason.UNRETURNED);
+        if (LoanPolicy.isOverdue(openLoanBorrowDate, LocalDate.now())) {
+            logger.warn("Patron has overdue book: {}, borrowed on: {}", patronId, openLoanBorrowDate);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Your previous book is overdue, you must return it before borrowing again.");
+        }
+        logger.warn("Patron has unreturned book: {}", patronId);
         throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                "You are banned from borrowing until " + banUntil);
+                "You must return your previous book before borrowing again.");
     }
 
     @Transactional
@@ -114,33 +130,49 @@ public class BorrowingService {
         try {
             BorrowingRecord borrowingRecord = findActiveBorrowing(bookId, patronId);
 
-            checkAndHandleLateFees(borrowingRecord);
-            return processBookReturn(borrowingRecord);
+            processBookReturn(borrowingRecord, bookId, patronId);
+            checkAndHandleLateFees(borrowingRecord, patronId);
+            return borrowingRecord;
         } catch (Exception e) {
             logger.error("Error processing book return: Book ID: {}, Patron ID: {}", bookId, patronId, e);
             throw e;
         }
     }
 
-    private void checkForActiveBan(Patron patron) {
-        Optional<BanRecord> activeBan = banRepository.findByPatronAndBanUntilAfter(patron, LocalDate.now());
-        if (activeBan.isPresent()) {
-            logger.warn("Patron has active ban: {}, ban until: {}", patron.getId(), activeBan.get().getBanUntil());
+    private void checkForActiveBan(Long patronId, LocalDate banUntil) {
+        if (banUntil != null) {
+            logger.warn("Patron has active ban: {}, ban until: {}", patronId, banUntil);
+            borrowingMetrics.recordRejection(BorrowRejectionReason.BANNED);
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "You are banned from borrowing until " + activeBan.get().getBanUntil());
+                    "You are banned from borrowing until " + banUntil);
         }
     }
 
-    private BorrowingRecord createBorrowingRecord(Book book, Patron patron) {
+    // Book and patron are only referenced by id, neither is loaded
+    private BorrowingRecord createBorrowingRecord(Long bookId, Long patronId) {
+        claimBook(bookId);
+        if (bookRepository.updateStatus(bookId, BookStatus.AVAILABLE, BookStatus.BORROWED) == 0) {
+            availabilityIndex.markBorrowed(bookId);
+            logger.warn("Book was borrowed concurrently: {}", bookId);
+            borrowingMetrics.recordRejection(BorrowRejectionReason.UNAVAILABLE);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Book is currently borrowed");
+        }
+        bookService.evictCachedBook(bookId);
+
         BorrowingRecord borrowingRecord = new BorrowingRecord();
-        borrowingRecord.setBook(book);
-        borrowingRecord.setPatron(patron);
+        borrowingRecord.setBook(bookRepository.getReferenceById(bookId));
+        borrowingRecord.setPatron(patronRepository.getReferenceById(patronId));
         borrowingRecord.setBorrowDate(LocalDate.now());
-
-        book.setBookStatus(BookStatus.BORROWED);
-        bookRepository.save(book);
-
-        return borrowingRecordRepository.save(borrowingRecord);
+        borrowingRecord.setOpenPatronId(patronId);
+        try {
+            // Flushed here so a loan opened concurrently (on another node) surfaces as a rejection, not at commit
+            return borrowingRecordRepository.saveAndFlush(borrowingRecord);
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Patron opened another loan concurrently: {}", patronId);
+            borrowingMetrics.recordRejection(BorrowRejectionReason.UNRETURNED);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "You must return your previous book before borrowing again.");
+        }
     }
 
     private BorrowingRecord findActiveBorrowing(Long bookId, Long patronId) {
@@ -152,28 +184,219 @@ public class BorrowingService {
                 });
     }
 
-    private void checkAndHandleLateFees(BorrowingRecord borrowingRecord) {
-        LocalDate dueDate = borrowingRecord.getBorrowDate().plusMonths(LOAN_PERIOD_MONTHS);
-        LocalDate gracePeriodEnd = dueDate.plusWeeks(GRACE_PERIOD_WEEKS);
-
-        if (LocalDate.now().isAfter(gracePeriodEnd)) {
-            LocalDate banUntil = LocalDate.now().plusMonths(BAN_PERIOD_MONTHS);
-            BanRecord banRecord = new BanRecord(banUntil, borrowingRecord.getPatron());
+    private void checkAndHandleLateFees(BorrowingRecord borrowingRecord, Long patronId) {
+        if (LoanPolicy.isOverdue(borrowingRecord.getBorrowDate(), LocalDate.now())) {
+            LocalDate banUntil = LoanPolicy.banUntil(LocalDate.now());
+            BanRecord banRecord = new BanRecord(banUntil, patronRepository.getReferenceById(patronId));
             banRepository.save(banRecord);
-            logger.warn("Patron banned for late return: {}, ban until: {}",
-                    borrowingRecord.getPatron().getId(), banUntil);
+            logger.warn("Patron banned for late return: {}, ban until: {}", patronId, banUntil);
+        }
+    }
+
+    // Same guarded-update pattern as the borrow path: of two concurrent returns of one loan, possibly on different
+    // nodes, the second matches no row instead of failing on a stale @Version at commit
+    private void processBookReturn(BorrowingRecord borrowingRecord, Long bookId, Long patronId) {
+        LocalDate today = LocalDate.now();
+        if (borrowingRecordRepository.closeLoan(borrowingRecord.getId(), today) == 0) {
+            logger.warn("Borrowing record was returned concurrently: {}", borrowingRecord.getId());
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No active borrowing record found");
+        }
+        if (bookRepository.updateStatus(bookId, BookStatus.BORROWED, BookStatus.AVAILABLE) == 0) {
+            logger.error("Book of an open borrowing record was not borrowed: Book ID: {}, Borrowing record ID: {}",
+                    bookId, borrowingRecord.getId());
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Book status was changed concurrently");
         }
+        availabilityIndex.markAvailable(bookId);
+        bookService.evictCachedBook(bookId);
+
+        // Detached by closeLoan, only updated for the response
+        borrowingRecord.setReturnDate(today);
+        borrowingRecord.getBook().setBookStatus(BookStatus.AVAILABLE);
+        logger.info("Book returned successfully: Book ID: {}, Patron ID: {}", bookId, patronId);
+    }
+
+    /**
+     * Borrows several books in one transaction. Books, patrons, open loans and active bans are each loaded
+     * with a single IN query and the new records are written as one JDBC batch. A failing item does not
+     * abort the batch; it is reported in its result instead. Like {@link #borrow}, it never writes bans.
+     */
+    @Transactional
+    public List<BorrowingResult> borrowBatch(List<BorrowingRequest> requests) {
+        validateBatch(requests);
+        logger.debug("Starting batch borrow of {} items", requests.size());
+
+        Set<Long> bookIds = collectIds(requests, BorrowingRequest::getBookId);
+        Set<Long> patronIds = collectIds(requests, BorrowingRequest::getPatronId);
+
+        Map<Long, Book> books = bookRepository.findAllById(bookIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        Map<Long, Patron> patrons = patronRepository.findAllById(patronIds).stream()
+                .collect(Collectors.toMap(Patron::getId, Function.identity()));
+        Map<Long, LocalDate> openLoans = borrowingRecordRepository.findByPatron_IdInAndReturnDateIsNull(patronIds).stream()
+                .collect(Collectors.toMap(r -> r.getPatron().getId(), BorrowingRecord::getBorrowDate, BinaryOperator.maxBy(Comparator.naturalOrder())));
+        Map<Long, LocalDate> activeBans = banRepository.findByPatron_IdInAndBanUntilAfter(patronIds, LocalDate.now()).stream()
+                .collect(Collectors.toMap(b -> b.getPatron().getId(), BanRecord::getBanUntil, BinaryOperator.maxBy(Comparator.naturalOrder())));
+
+        List<BorrowingResult> results = new ArrayList<>(requests.size());
+        List<BorrowingRecord> newRecords = new ArrayList<>();
+
+        for (BorrowingRequest request : requests) {
+            Long bookId = request.getBookId();
+            Long patronId = request.getPatronId();
+            if (bookId == null || patronId == null) {
+                results.add(failure(request, HttpStatus.BAD_REQUEST, "Book ID and patron ID are required"));
+                continue;
+            }
+            Book book = books.get(bookId);
+            if (book == null) {
+                results.add(failure(request, HttpStatus.NOT_FOUND, "Book not found"));
+                continue;
+            }
+            if (book.getBookStatus() != BookStatus.AVAILABLE) {
+                availabilityIndex.markBorrowed(bookId);
+                borrowingMetrics.recordRejection(BorrowRejectionReason.UNAVAILABLE);
+                results.add(failure(request, HttpStatus.BAD_REQUEST, "Book is currently borrowed"));
+                continue;
+            }
+            Patron patron = patrons.get(patronId);
+            if (patron == null) {
+                results.add(failure(request, HttpStatus.NOT_FOUND, "Patron not found"));
+                continue;
+            }
+            LocalDate banUntil = activeBans.get(patronId);
+            LocalDate lastBorrowDate = openLoans.get(patronId);
+            if (banUntil != null) {
+                borrowingMetrics.recordRejection(BorrowRejectionReason.BANNED);
+                results.add(failure(request, HttpStatus.BAD_REQUEST, "You are banned from borrowing until " + banUntil));
+                continue;
+            }
+            if (lastBorrowDate != null) {
+                borrowingMetrics.recordRejection(BorrowRejectionReason.UNRETURNED);
+                results.add(failure(request, HttpStatus.BAD_REQUEST, LoanPolicy.isOverdue(lastBorrowDate, LocalDate.now())
+                        ? "Your previous book is overdue, you must return it before borrowing again."
+                        : "You must return your previous book before borrowing again."));
+                continue;
+            }
+            if (!availabilityIndex.tryClaim(bookId)) {
+                borrowingMetrics.recordRejection(BorrowRejectionReason.UNAVAILABLE);
+                results.add(failure(request, HttpStatus.BAD_REQUEST, "Book is currently borrowed"));
+                continue;
+            }
+
+            BorrowingRecord borrowingRecord = new BorrowingRecord();
+            borrowingRecord.setBook(book);
+            borrowingRecord.setPatron(patron);
+            borrowingRecord.setBorrowDate(LocalDate.now());
+            borrowingRecord.setOpenPatronId(patronId);
+            book.setBookStatus(BookStatus.BORROWED);
+            bookService.evictCachedBook(bookId);
+            openLoans.put(patronId, borrowingRecord.getBorrowDate());
+            newRecords.add(borrowingRecord);
+            results.add(null); // filled in once the record has been saved
+        }
+
+        try {
+            borrowingRecordRepository.saveAllAndFlush(newRecords);
+        } catch (DataIntegrityViolationException e) {
+            // A patron of the batch opened a loan on another node since the open loans were read; the retry sees it
+            throw new ConcurrencyFailureException("Open loan created concurrently for a patron of the batch", e);
+        }
+
+        Iterator<BorrowingRecord> saved = newRecords.iterator();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) {
+                results.set(i, success(requests.get(i), saved.next()));
+            }
+        }
+        logger.info("Batch borrow finished: {} of {} items succeeded", newRecords.size(), requests.size());
+        return results;
     }
 
-    private BorrowingRecord processBookReturn(BorrowingRecord borrowingRecord) {
-        borrowingRecord.setReturnDate(LocalDate.now());
+    /**
+     * Returns several books in one transaction, loading all open loans for the given books with a single query.
+     */
+    @Transactional
+    public List<BorrowingResult> returnBatch(List<BorrowingRequest> requests) {
+        validateBatch(requests);
+        logger.debug("Starting batch return of {} items", requests.size());
+
+        Set<Long> bookIds = collectIds(requests, BorrowingRequest::getBookId);
+        Map<BorrowingRequest, BorrowingRecord> openLoans = borrowingRecordRepository.findByBook_IdInAndReturnDateIsNull(bookIds).stream()
+                .collect(Collectors.toMap(
+                        r -> new BorrowingRequest(r.getBook().getId(), r.getPatron().getId()),
+                        Function.identity(),
+                        BinaryOperator.maxBy(Comparator.comparing(BorrowingRecord::getBorrowDate))));
+
+        List<BorrowingResult> results = new ArrayList<>(requests.size());
+        List<BanRecord> newBans = new ArrayList<>();
+        int returned = 0;
+
+        for (BorrowingRequest request : requests) {
+            BorrowingRecord borrowingRecord = openLoans.remove(request);
+            if (borrowingRecord == null) {
+                results.add(failure(request, HttpStatus.BAD_REQUEST, "No active borrowing record found"));
+                continue;
+            }
+            if (LoanPolicy.isOverdue(borrowingRecord.getBorrowDate(), LocalDate.now())) {
+                LocalDate banUntil = LoanPolicy.banUntil(LocalDate.now());
+                newBans.add(new BanRecord(banUntil, borrowingRecord.getPatron()));
+                logger.warn("Patron banned for late return: {}, ban until: {}", request.getPatronId(), banUntil);
+            }
+            borrowingRecord.setReturnDate(LocalDate.now());
+            borrowingRecord.setOpenPatronId(null);
+            borrowingRecord.getBook().setBookStatus(BookStatus.AVAILABLE);
+            availabilityIndex.markAvailable(request.getBookId());
+            bookService.evictCachedBook(request.getBookId());
+            results.add(success(request, borrowingRecord));
+            returned++;
+        }
+
+        banRepository.saveAll(newBans);
+        logger.info("Batch return finished: {} of {} items succeeded", returned, requests.size());
+        return results;
+    }
 
-        Book book = borrowingRecord.getBook();
-        book.setBookStatus(BookStatus.AVAILABLE);
-        bookRepository.save(book);
+    private void validateBatch(List<BorrowingRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch must contain at least one item");
+        }
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch cannot contain more than " + MAX_BATCH_SIZE + " items");
+        }
+        // A JSON null in the array; there is no item to report a per-item result for
+        if (requests.stream().anyMatch(Objects::isNull)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch items cannot be null");
+        }
+    }
+
+    private Set<Long> collectIds(List<BorrowingRequest> requests, Function<BorrowingRequest, Long> idExtractor) {
+        return requests.stream()
+                .map(idExtractor)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    private BorrowingResult success(BorrowingRequest request, BorrowingRecord borrowingRecord) {
+        return BorrowingResult.builder()
+                .bookId(request.getBookId())
+                .patronId(request.getPatronId())
+                .success(true)
+                .status(HttpStatus.OK.value())
+                .borrowingRecordId(borrowingRecord.getId())
+                .borrowDate(borrowingRecord.getBorrowDate())
+                .returnDate(borrowingRecord.getReturnDate())
+                .borrowingRecord(borrowingRecord)
+                .build();
+    }
 
-        logger.info("Book returned successfully: Book ID: {}, Patron ID: {}",
-                book.getId(), borrowingRecord.getPatron().getId());
-        return borrowingRecordRepository.save(borrowingRecord);
+    private BorrowingResult failure(BorrowingRequest request, HttpStatus status, String message) {
+        logger.warn("Batch item failed: Book ID: {}, Patron ID: {} - {}", request.getBookId(), request.getPatronId(), message);
+        return BorrowingResult.builder()
+                .bookId(request.getBookId())
+                .patronId(request.getPatronId())
+                .success(false)
+                .status(status.value())
+                .message(message)
+                .build();
     }
-}
\ No newline at end of file
+}
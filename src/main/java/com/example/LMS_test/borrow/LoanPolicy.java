@@ -0,0 +1,29 @@
+package com.example.LMS_test.borrow;
+
+import java.time.LocalDate;
+
+/**
+ * Loan period, grace period and ban length, shared by the borrow and return paths and the overdue scan.
+ */
+final class LoanPolicy {
+    static final int LOAN_PERIOD_MONTHS = 3;
+    static final int GRACE_PERIOD_WEEKS = 1;
+    static final int BAN_PERIOD_MONTHS = 6;
+
+    private LoanPolicy() {
+    }
+
+    static boolean isOverdue(LocalDate borrowDate, LocalDate today) {
+        LocalDate gracePeriodEnd = borrowDate.plusMonths(LOAN_PERIOD_MONTHS).plusWeeks(GRACE_PERIOD_WEEKS);
+        return today.isAfter(gracePeriodEnd);
+    }
+
+    // Loans borrowed before this date are overdue today, lets the scan compare against the indexed borrowDate column
+    static LocalDate overdueCutoff(LocalDate today) {
+        return today.minusWeeks(GRACE_PERIOD_WEEKS).minusMonths(LOAN_PERIOD_MONTHS);
+    }
+
+    static LocalDate banUntil(LocalDate today) {
+        return today.plusMonths(BAN_PERIOD_MONTHS);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.LMS_test.borrow;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Sets {@code open_patron_id} on loans opened before the column existed, once at startup before the application
+ * reports ready. A patron holding several open loans keeps it on the newest one only; the others stay open without
+ * it and are reported, to be returned or closed by hand. Re-running it updates nothing.
+ */
+@Component
+@RequiredArgsConstructor
+public class OpenLoanBackfill implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(OpenLoanBackfill.class);
+
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${borrowing.open-loan-backfill.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> backfill());
+    }
+
+    private void backfill() {
+        List<Long> duplicates = borrowingRecordRepository.findPatronIdsWithSeveralOpenLoans();
+        if (!duplicates.isEmpty()) {
+            logger.warn("{} patrons hold more than one open loan, only the newest is tracked as open: patron IDs {}",
+                    duplicates.size(), duplicates);
+        }
+        int updated = borrowingRecordRepository.backfillOpenPatronIds();
+        if (updated > 0) {
+            logger.info("Backfilled open_patron_id on {} open loans", updated);
+        }
+    }
+}
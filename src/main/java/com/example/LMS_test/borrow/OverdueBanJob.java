@@ -0,0 +1,108 @@
+package com.example.LMS_test.borrow;
+
+import com.example.LMS_test.ban.BanRecord;
+import com.example.LMS_test.ban.BanRepository;
+import com.example.LMS_test.patron.PatronRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Bans every patron holding a loan past its grace period. Overdue loans are read in keyset batches over the
+ * (returnDate, borrowDate) index and each batch's bans are inserted in one transaction, skipping patrons whose
+ * ban is still running, so re-running the scan (or running it after a crash) never bans anyone twice.
+ * Borrowing only reads the bans written here.
+ * <p>
+ * With several instances, give each a different {@code borrowing.overdue-scan.partition} out of
+ * {@code borrowing.overdue-scan.partition-count}; patrons are split by id so each one is scanned by a single node.
+ */
+@Component
+@RequiredArgsConstructor
+public class OverdueBanJob {
+    private static final Logger logger = LoggerFactory.getLogger(OverdueBanJob.class);
+    private static final LocalDate SCAN_START = LocalDate.of(1900, 1, 1);
+
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final BanRepository banRepository;
+    private final PatronRepository patronRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicLong bansIssuedTotal = new AtomicLong();
+
+    @Value("${borrowing.overdue-scan.batch-size:500}")
+    private int batchSize;
+
+    @Value("${borrowing.overdue-scan.partition-count:1}")
+    private int partitionCount;
+
+    @Value("${borrowing.overdue-scan.partition:0}")
+    private int partition;
+
+    @Scheduled(fixedDelayString = "${borrowing.overdue-scan.interval-ms:3600000}",
+            initialDelayString = "${borrowing.overdue-scan.initial-delay-ms:60000}")
+    public void scan() {
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        LocalDate cutoff = LoanPolicy.overdueCutoff(today);
+        LocalDate afterDate = SCAN_START;
+        long afterId = 0;
+        int scanned = 0;
+        int issued = 0;
+
+        while (true) {
+            List<OverdueLoan> loans = borrowingRecordRepository.findOverdueLoans(
+                    cutoff, afterDate, afterId, partitionCount, partition, Limit.of(batchSize));
+            if (loans.isEmpty()) {
+                break;
+            }
+            issued += issueBans(loans, today);
+            scanned += loans.size();
+            OverdueLoan last = loans.get(loans.size() - 1);
+            afterDate = last.getBorrowDate();
+            afterId = last.getId();
+            if (loans.size() < batchSize) {
+                break;
+            }
+        }
+
+        bansIssuedTotal.addAndGet(issued);
+        if (scanned > 0) {
+            logger.info("Overdue scan found {} overdue loans and issued {} bans in {} ms",
+                    scanned, issued, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private int issueBans(List<OverdueLoan> loans, LocalDate today) {
+        Set<Long> patronIds = loans.stream()
+                .map(OverdueLoan::getPatronId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Integer issued = transactionTemplate.execute(status -> {
+            patronIds.removeAll(banRepository.findPatronIdsBannedAfter(patronIds, today));
+            LocalDate banUntil = LoanPolicy.banUntil(today);
+            List<BanRecord> bans = patronIds.stream()
+                    .map(patronId -> new BanRecord(banUntil, patronRepository.getReferenceById(patronId)))
+                    .toList();
+            banRepository.saveAll(bans);
+            return bans.size();
+        });
+        if (issued != null && issued > 0) {
+            logger.warn("Banned {} patrons for overdue books until {}: {}", issued, LoanPolicy.banUntil(today), patronIds);
+        }
+        return issued == null ? 0 : issued;
+    }
+
+    public long getBansIssuedTotal() {
+        return bansIssuedTotal.get();
+    }
+}
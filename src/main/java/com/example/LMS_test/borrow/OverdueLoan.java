@@ -0,0 +1,19 @@
+package com.example.LMS_test.borrow;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Open loan past its grace period, as read by {@link BorrowingRecordRepository#findOverdueLoans}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OverdueLoan {
+    private Long id;
+    private Long patronId;
+    private LocalDate borrowDate;
+}
@@ -0,0 +1,72 @@
+package com.example.LMS_test.borrow;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes borrows by the same patron within this node, so the "one open loan" check and the insert that
+ * follows it cannot interleave with another borrow by that patron. Patrons are hashed onto a fixed number of
+ * stripes: memory stays bounded however many patrons there are, and unrelated patrons rarely wait on each other.
+ * <p>
+ * Locks must be taken outside the transaction and held until it has committed. Across nodes the unique
+ * open-loan constraint on {@link BorrowingRecord} is what enforces the rule; the locks only keep same-node
+ * races from reaching it. {@link ReentrantLock} rather than {@code synchronized}, so virtual threads do not pin.
+ */
+@Component
+public class PatronLocks {
+    private final ReentrantLock[] stripes;
+
+    public PatronLocks(@Value("${borrowing.patron-locks.stripes:1024}") int stripeCount) {
+        // Rounded up to a power of two so a stripe is picked with a mask
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withLock(Long patronId, Supplier<T> action) {
+        ReentrantLock lock = stripes[stripeOf(patronId)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Locks every patron of a batch. Stripes are taken in ascending index order, so two batches sharing patrons
+     * cannot deadlock, and a stripe shared by several patrons is taken once.
+     */
+    public <T> T withLocks(Collection<Long> patronIds, Supplier<T> action) {
+        int[] indexes = patronIds.stream()
+                .filter(Objects::nonNull)
+                .mapToInt(this::stripeOf)
+                .distinct()
+                .sorted()
+                .toArray();
+        int locked = 0;
+        try {
+            for (int index : indexes) {
+                stripes[index].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    int stripeOf(Long patronId) {
+        int hash = patronId == null ? 0 : patronId.hashCode();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+}
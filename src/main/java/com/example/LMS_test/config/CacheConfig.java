@@ -1,41 +1,105 @@
 package com.example.LMS_test.config;
 
+import com.example.LMS_test.book.BookRepository;
+import com.example.LMS_test.patron.PatronRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import org.springframework.beans.factory.annotation.Value;
+import com.github.benmanes.caffeine.cache.Weigher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.util.Arrays;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CachePolicyProperties.class)
+@RequiredArgsConstructor
 public class CacheConfig {
-    @Value("${cache.expire-after-write:600}") // 10 minutes in seconds
-    private int expireAfterWrite;
+    private static final String[] CACHE_NAMES = {"books", "bookPages", "patrons", "patronLists", "borrowingRecords", "users"};
 
-    @Value("${cache.maximum-size:100}")
-    private int maximumSize;
-
-    private static final String[] CACHE_NAMES = {"books", "patrons", "borrowingRecords"};
+    private final CachePolicyProperties cachePolicyProperties;
 
+    /**
+     * Builds every cache from its own policy in {@link CachePolicyProperties}. Caches given a {@code max-weight} are
+     * bounded by the approximate serialized size of their entries ({@link JsonSizeWeigher}), so a cached list costs
+     * what it holds rather than one slot.
+     * <p>
+     * The {@code books} and {@code patrons} caches are loading caches: with a {@code refresh-after-write}, an entry
+     * read past that age keeps being served while one background reload replaces it, so a hot entry never expires
+     * under load. Misses are single-flight through {@code @Cacheable(sync = true)}.
+     */
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    public CacheManager cacheManager(ObjectProvider<BookRepository> bookRepository,
+                                     ObjectProvider<PatronRepository> patronRepository,
+                                     ObjectMapper objectMapper) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new NonLoadingLookupCaffeineCache(name, cache, isAllowNullValues());
+            }
+        };
+        // A row deleted since the entry was loaded comes back as null, which drops the entry. The repositories are
+        // resolved on the first load: they need the EntityManagerFactory, whose entity listeners need this manager.
+        Map<String, CacheLoader<Object, Object>> loaders = Map.of(
+                "books", id -> bookRepository.getObject().findById((Long) id).orElse(null),
+                "patrons", id -> patronRepository.getObject().findById((Long) id).orElse(null));
+        Weigher<Object, Object> weigher = new JsonSizeWeigher(objectMapper);
+
         cacheManager.setCacheNames(Arrays.asList(CACHE_NAMES));
-        cacheManager.setCaffeine(caffeineCacheBuilder());
+        for (String name : CACHE_NAMES) {
+            CacheLoader<Object, Object> loader = loaders.get(name);
+            Caffeine<Object, Object> builder = caffeineCacheBuilder(name, weigher, loader != null);
+            cacheManager.registerCustomCache(name, loader != null ? builder.build(loader) : builder.build());
+        }
         return cacheManager;
     }
 
-    Caffeine<Object, Object> caffeineCacheBuilder() {
-        return Caffeine.newBuilder()
-                .expireAfterWrite(expireAfterWrite, TimeUnit.SECONDS)
-                .maximumSize(maximumSize)
+    Caffeine<Object, Object> caffeineCacheBuilder(String cacheName, Weigher<Object, Object> weigher, boolean loading) {
+        CachePolicyProperties.Policy policy = cachePolicyProperties.policyFor(cacheName);
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .expireAfterWrite(policy.getExpireAfterWrite())
                 .recordStats(); // Enable statistics
+        if (policy.getMaxWeight() != null) {
+            builder.maximumWeight(policy.getMaxWeight().toBytes()).weigher(weigher);
+        } else {
+            builder.maximumSize(policy.getMaximumSize());
+        }
+        if (policy.getRefreshAfterWrite() != null) {
+            if (!loading) {
+                throw new IllegalStateException("cache.policies." + cacheName
+                        + ".refresh-after-write is set, but only the books and patrons caches can reload entries");
+            }
+            builder.refreshAfterWrite(policy.getRefreshAfterWrite());
+        }
+        return builder;
+    }
+
+    /**
+     * Reads entries without loading them. Spring would otherwise send every plain lookup on a loading cache
+     * (such as {@code Cache.get(key, type)}) to the database on a miss; only {@code sync} misses and background
+     * refreshes are meant to load.
+     */
+    static class NonLoadingLookupCaffeineCache extends CaffeineCache {
+        NonLoadingLookupCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                                      boolean allowNullValues) {
+            super(name, cache, allowNullValues);
+        }
+
+        @Override
+        protected Object lookup(Object key) {
+            return getNativeCache().getIfPresent(key);
+        }
     }
 
     @Bean
@@ -0,0 +1,57 @@
+package com.example.LMS_test.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.convert.DataSizeUnit;
+import org.springframework.boot.convert.DurationUnit;
+import org.springframework.util.unit.DataSize;
+import org.springframework.util.unit.DataUnit;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Eviction policy of each cache, under {@code cache.policies.<name>}. Anything a cache leaves unset falls back to
+ * the top-level {@code cache.*} defaults. Bare numbers are seconds for durations and megabytes for sizes.
+ */
+@Data
+@ConfigurationProperties(prefix = "cache")
+public class CachePolicyProperties {
+
+    @DurationUnit(ChronoUnit.SECONDS)
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+    // Entry count, for caches without a max-weight
+    private long maximumSize = 100;
+
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    public Policy policyFor(String cacheName) {
+        Policy configured = policies.getOrDefault(cacheName, new Policy());
+        Policy policy = new Policy();
+        policy.setExpireAfterWrite(configured.getExpireAfterWrite() != null ? configured.getExpireAfterWrite() : expireAfterWrite);
+        policy.setRefreshAfterWrite(configured.getRefreshAfterWrite());
+        policy.setMaxWeight(configured.getMaxWeight());
+        policy.setMaximumSize(configured.getMaximumSize() != null ? configured.getMaximumSize() : maximumSize);
+        return policy;
+    }
+
+    @Data
+    public static class Policy {
+
+        @DurationUnit(ChronoUnit.SECONDS)
+        private Duration expireAfterWrite;
+
+        // Only for loading caches (books, patrons): stale entries are served while they reload in the background
+        @DurationUnit(ChronoUnit.SECONDS)
+        private Duration refreshAfterWrite;
+
+        // Soft limit on the summed approximate serialized size of the entries; replaces maximum-size when set
+        @DataSizeUnit(DataUnit.MEGABYTES)
+        private DataSize maxWeight;
+
+        private Long maximumSize;
+    }
+}
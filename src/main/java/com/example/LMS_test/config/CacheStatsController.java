@@ -0,0 +1,55 @@
+package com.example.LMS_test.config;
+
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exposes the Caffeine statistics recorded by {@link CacheConfig} so hit ratios, memory use against the configured
+ * limit and load times can be checked per cache.
+ */
+@RestController
+@RequestMapping("/api/admin/cache-stats")
+@RequiredArgsConstructor
+public class CacheStatsController {
+    private final CacheManager cacheManager;
+
+    @GetMapping
+    public ResponseEntity<List<CacheStatsResponse>> getCacheStats() {
+        List<CacheStatsResponse> stats = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+                CacheStats cacheStats = caffeine.stats();
+                Policy<?, ?> policy = caffeine.policy();
+                Policy.Eviction<?, ?> eviction = policy.eviction().orElse(null);
+                boolean weighted = eviction != null && eviction.isWeighted();
+                stats.add(new CacheStatsResponse(
+                        name,
+                        caffeine.estimatedSize(),
+                        cacheStats.hitCount(),
+                        cacheStats.missCount(),
+                        cacheStats.hitRate(),
+                        cacheStats.evictionCount(),
+                        weighted,
+                        weighted ? eviction.weightedSize().orElse(0) : caffeine.estimatedSize(),
+                        eviction != null ? eviction.getMaximum() : Long.MAX_VALUE,
+                        cacheStats.loadCount(),
+                        cacheStats.averageLoadPenalty() / 1_000_000.0,
+                        policy.expireAfterWrite().map(expiration -> expiration.getExpiresAfter(TimeUnit.SECONDS)).orElse(null),
+                        policy.refreshAfterWrite().map(refresh -> refresh.getRefreshesAfter(TimeUnit.SECONDS)).orElse(null)));
+            }
+        }
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.LMS_test.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsResponse {
+    private String name;
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private double hitRatio;
+    private long evictionCount;
+
+    // Summed approximate serialized size in bytes and its limit for weighed caches, entry count and its limit otherwise
+    private boolean weighted;
+    private long weightedSize;
+    private long maximum;
+
+    private long loadCount;
+    private double averageLoadPenaltyMillis;
+    private Long expireAfterWriteSeconds;
+    private Long refreshAfterWriteSeconds;
+}
@@ -0,0 +1,89 @@
+package com.example.LMS_test.config;
+
+import com.example.LMS_test.book.Book;
+import com.example.LMS_test.book.BookPage;
+import com.example.LMS_test.book.BookService;
+import com.example.LMS_test.patron.Patron;
+import com.example.LMS_test.patron.PatronRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fills the hot caches once the application is up, so the first requests after a restart against a
+ * persistent database do not all miss at once. Book pages go through the service proxy, so they are keyed
+ * exactly as the request path would key them. Both loops read bounded keyset pages, never a whole table.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheWarmer {
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmer.class);
+
+    // Same as the default "size" of GET /api/books
+    private static final int BOOK_PAGE_SIZE = 50;
+    private static final int PATRON_PAGE_SIZE = 50;
+
+    private final BookService bookService;
+    private final PatronRepository patronRepository;
+    private final CacheManager cacheManager;
+
+    @Value("${cache.warm-up.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cache.warm-up.book-pages:4}")
+    private int bookPages;
+
+    @Value("${cache.warm-up.patrons:200}")
+    private int maxPatrons;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        Cache books = cacheManager.getCache("books");
+        Cache patrons = cacheManager.getCache("patrons");
+
+        int bookCount = 0;
+        Long cursor = 0L;
+        for (int page = 0; page < bookPages && cursor != null; page++) {
+            BookPage bookPage = bookService.getPage(cursor, BOOK_PAGE_SIZE);
+            for (Book book : bookPage.getContent()) {
+                if (books != null) {
+                    books.putIfAbsent(book.getId(), book);
+                }
+                bookCount++;
+            }
+            cursor = bookPage.getNextCursor();
+        }
+
+        int patronCount = 0;
+        long patronCursor = 0L;
+        while (patronCount < maxPatrons) {
+            int pageSize = Math.min(PATRON_PAGE_SIZE, maxPatrons - patronCount);
+            List<Patron> page = patronRepository.findByIdGreaterThanOrderByIdAsc(patronCursor, Limit.of(pageSize));
+            for (Patron patron : page) {
+                if (patrons != null) {
+                    patrons.putIfAbsent(patron.getId(), patron);
+                }
+                patronCount++;
+            }
+            if (page.size() < pageSize) {
+                break;
+            }
+            patronCursor = page.get(page.size() - 1).getId();
+        }
+        logger.info("Cache warm-up loaded {} books and {} patrons in {} ms",
+                bookCount, patronCount, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.LMS_test.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.support.NullValue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Weighs a cache entry by the length in bytes of its JSON form, a cheap stand-in for its memory footprint that
+ * grows the same way: a page of a hundred books weighs about a hundred books, not one. The JSON is counted, never
+ * kept, and only on writes. The heap copy is larger than its JSON, so a limit in MB bounds memory to a small multiple.
+ */
+class JsonSizeWeigher implements Weigher<Object, Object> {
+    private static final Logger logger = LoggerFactory.getLogger(JsonSizeWeigher.class);
+
+    private static final int NULL_VALUE_WEIGHT = 16;
+    private static final int UNKNOWN_WEIGHT = 1024;
+
+    private final ObjectMapper objectMapper;
+
+    JsonSizeWeigher(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public int weigh(Object key, Object value) {
+        if (value instanceof NullValue) {
+            return NULL_VALUE_WEIGHT;
+        }
+        CountingOutputStream output = new CountingOutputStream();
+        try {
+            objectMapper.writeValue(output, value);
+            return (int) Math.min(Integer.MAX_VALUE, output.count);
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Could not serialize a {} to weigh it, using {} bytes", value.getClass().getSimpleName(), UNKNOWN_WEIGHT, e);
+            return UNKNOWN_WEIGHT;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.LMS_test.config;
 
+import com.example.LMS_test.token.TokenRevocationRegistry;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,6 +23,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationRegistry revocationRegistry;
 
     @Override
     protected void doFilterInternal(
@@ -38,11 +41,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String username;
         final String jwtToken;
         jwtToken = authHeader.substring(7);
-        username = jwtService.extractUserName(jwtToken);
+        if (revocationRegistry.isRevoked(jwtToken)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        final Claims claims = jwtService.extractAllClaims(jwtToken);
+        username = claims.getSubject();
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            if (jwtService.validateToken(jwtToken, userDetails)) {
-                System.out.println("In");
+            if (jwtService.isTokenValid(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -1,33 +1,116 @@
 package com.example.LMS_test.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
 
+    private final MeterRegistry meterRegistry;
 
     @Value("${security.jwt.secret-key}")
     private String secretKey;
+
+    @Value("${security.jwt.claims-cache.maximum-size:10000}")
+    private long claimsCacheMaximumSize;
+
     private static final long EXPIRATION_TIME = 864_000_000;
     private static final long REFRESH_TOKEN_VALIDITY = 604_800_000;
+    // No token issued here lives longer; also bounds claims whose token carries no expiration
+    private static final long MAX_CLAIMS_TTL = EXPIRATION_TIME;
+
+    // Decoded once, both are immutable and thread-safe
+    private Key signKey;
+    private JwtParser parser;
+
+    // Keyed by SHA-256 of the token so raw tokens are not kept in memory; entries never outlive the token
+    private Cache<String, Claims> claimsCache;
+
+    // Only cache misses are timed, hits never touch the parser
+    private Timer parseTimer;
+
+    @PostConstruct
+    void init() {
+        signKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        parser = Jwts.parserBuilder().setSigningKey(signKey).build();
+        parseTimer = Timer.builder("lms.jwt.parse")
+                .description("Signature verification and parsing of tokens missing from the claims cache")
+                .register(meterRegistry);
+        claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaximumSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long remainingMillis = claims.getExpiration() != null
+                                ? Math.min(claims.getExpiration().getTime() - System.currentTimeMillis(), MAX_CLAIMS_TTL)
+                                : MAX_CLAIMS_TTL;
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
 
     public String extractUserName(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
+    public Date extractExpiration(String token) {
+        return extractClaim(token, Claims::getExpiration);
+    }
+
+    /**
+     * Expiration claim of a token whose signature checks out, even if it has already expired.
+     * Returns null when the token is not a valid JWT or carries no expiration.
+     */
+    public Date readExpiration(String token) {
+        try {
+            return parser.parseClaimsJws(token).getBody().getExpiration();
+        } catch (ExpiredJwtException e) {
+            // Only thrown once the signature has been verified
+            return e.getClaims().getExpiration();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     private <T> T extractClaim(String token, Function<Claims, T> claimResolver) {
         final Claims claims = extractAllClaims(token);
         return claimResolver.apply(claims);
@@ -50,34 +133,38 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(getSignKey(), SignatureAlgorithm.HS256)
+                .signWith(signKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUserName(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        return isTokenValid(extractAllClaims(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername())
+                && claims.getExpiration() != null && !claims.getExpiration().before(new Date());
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verifies the signature and returns the claims, parsing each distinct token only once while it is valid.
+     */
+    public Claims extractAllClaims(String token) {
+        String key = hash(token);
+        Claims claims = claimsCache.getIfPresent(key);
+        if (claims == null) {
+            claims = parseTimer.record(() -> parser.parseClaimsJws(token).getBody());
+            claimsCache.put(key, claims);
+        }
+        return claims;
     }
 
-    private Key getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
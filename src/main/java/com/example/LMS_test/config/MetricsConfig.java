@@ -0,0 +1,48 @@
+package com.example.LMS_test.config;
+
+import com.example.LMS_test.borrow.OverdueBanJob;
+import com.example.LMS_test.token.TokenCompactionJob;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Application meters that read existing state rather than being recorded inline. Per-endpoint request timers
+ * and per-cache Caffeine metrics are bound by Spring Boot Actuator itself.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder tokenCompactionMetrics(TokenCompactionJob tokenCompactionJob) {
+        return registry -> FunctionCounter.builder("lms.token.compaction.purged", tokenCompactionJob,
+                        TokenCompactionJob::getPurgedTotal)
+                .description("Expired token rows deleted by the compaction job")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder overdueBanMetrics(OverdueBanJob overdueBanJob) {
+        return registry -> FunctionCounter.builder("lms.overdue.bans.issued", overdueBanJob,
+                        OverdueBanJob::getBansIssuedTotal)
+                .description("Bans issued by the overdue scan")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder passwordHashingMetrics(BoundedPasswordEncoder passwordEncoder) {
+        return registry -> {
+            Gauge.builder("lms.password.hashing.queue.size", passwordEncoder, BoundedPasswordEncoder::getQueueSize)
+                    .description("Password hashes waiting for a hashing thread")
+                    .register(registry);
+            Gauge.builder("lms.password.hashing.active", passwordEncoder, BoundedPasswordEncoder::getActiveCount)
+                    .description("Password hashes currently being computed")
+                    .register(registry);
+            FunctionCounter.builder("lms.password.hashing.rejected", passwordEncoder, BoundedPasswordEncoder::getRejectedTotal)
+                    .description("Sign-ins and registrations rejected because the hashing queue was full or too slow")
+                    .register(registry);
+        };
+    }
+}
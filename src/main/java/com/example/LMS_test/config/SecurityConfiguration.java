@@ -43,7 +43,7 @@ public class SecurityConfiguration {
 
                         // Book endpoints
                         .requestMatchers(HttpMethod.GET, "/api/books/**").permitAll()  // Anyone can view books
-                        .requestMatchers(HttpMethod.POST, "/api/books").hasAuthority("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/books", "/api/books/**").hasAuthority("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/api/books/**").hasAuthority("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/books/**").hasAuthority("ADMIN")
 
@@ -56,6 +56,9 @@ public class SecurityConfiguration {
                         // Borrow/return operations
                         .requestMatchers("/api/borrow/**").hasAnyAuthority("USER", "ADMIN")  // Users can borrow/return
 
+                        // Operational endpoints
+                        .requestMatchers("/api/admin/**", "/api/export/**", "/actuator/**").hasAuthority("ADMIN")
+
                         // All other requests require authentication
                         .anyRequest().authenticated())
                 .sessionManagement(httpSecuritySessionManagementConfigurer ->
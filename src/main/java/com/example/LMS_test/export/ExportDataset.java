@@ -0,0 +1,40 @@
+package com.example.LMS_test.export;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Tables that can be exported. Each query selects plain columns rather than entities, so scrolling through
+ * the result never fills the persistence context, and orders by the primary key so the database can walk
+ * the key index instead of sorting.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ExportDataset {
+    BOOKS("books",
+            "select b.id, b.title, b.author, b.isbn, b.publishDate, b.bookStatus from Book b order by b.id",
+            List.of("id", "title", "author", "isbn", "publishDate", "bookStatus")),
+    PATRONS("patrons",
+            "select p.id, p.name, p.contactInfo from Patron p order by p.id",
+            List.of("id", "name", "contactInfo")),
+    BORROWINGS("borrowings",
+            "select r.id, r.book.id, r.patron.id, r.borrowDate, r.returnDate from BorrowingRecord r order by r.id",
+            List.of("id", "bookId", "patronId", "borrowDate", "returnDate"));
+
+    private final String path;
+    private final String query;
+    private final List<String> columns;
+
+    public static ExportDataset from(String path) {
+        for (ExportDataset dataset : values()) {
+            if (dataset.path.equalsIgnoreCase(path)) {
+                return dataset;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown export: " + path);
+    }
+}
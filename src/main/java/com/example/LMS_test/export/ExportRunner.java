@@ -0,0 +1,57 @@
+package com.example.LMS_test.export;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command-line export: {@code --export=books|patrons|borrowings --export-file=<file>} writes the table and exits.
+ * A {@code .gz} suffix gzips the file, and the format follows the extension underneath it (.jsonl/.ndjson,
+ * anything else is written as CSV) unless {@code --export-format=csv|jsonl} is given.
+ * Best combined with {@code --spring.main.web-application-type=none}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExportRunner implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(ExportRunner.class);
+
+    private final ExportService exportService;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        List<String> datasets = args.getOptionValues("export");
+        if (datasets == null || datasets.isEmpty()) {
+            return;
+        }
+        ExportDataset dataset = ExportDataset.from(datasets.get(0));
+        List<String> files = args.getOptionValues("export-file");
+        Path file = Path.of(files != null && !files.isEmpty() ? files.get(0) : dataset.getPath() + ".csv");
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean gzip = name.endsWith(".gz");
+        if (gzip) {
+            name = name.substring(0, name.length() - ".gz".length());
+        }
+        List<String> formats = args.getOptionValues("export-format");
+        ExportFormat format = formats != null && !formats.isEmpty()
+                ? ExportFormat.from(formats.get(0))
+                : name.endsWith(".jsonl") || name.endsWith(".ndjson") ? ExportFormat.JSONL : ExportFormat.CSV;
+
+        logger.info("Exporting {} to {} as {}{}", dataset.getPath(), file, format, gzip ? " (gzip)" : "");
+        try (OutputStream outputStream = Files.newOutputStream(file)) {
+            exportService.export(dataset, format, gzip, outputStream);
+        }
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
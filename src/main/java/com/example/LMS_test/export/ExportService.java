@@ -0,0 +1,152 @@
+package com.example.LMS_test.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a whole table as CSV or JSON lines, optionally gzipped, while reading it through a forward-only
+ * database cursor. Each row goes from the cursor straight into a fixed-size buffer on the output stream,
+ * so memory use does not depend on the size of the table.
+ * <p>
+ * The export runs in a read-only READ COMMITTED transaction: it takes no read locks and on MVCC databases
+ * never blocks, or is blocked by, borrows and returns running at the same time.
+ */
+@Service
+public class ExportService {
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    public ExportService(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    /**
+     * Streams every row of the dataset to the output stream, which is flushed but left open.
+     *
+     * @return the number of rows written
+     */
+    public long export(ExportDataset dataset, ExportFormat format, boolean gzip, OutputStream outputStream)
+            throws IOException {
+        long start = System.nanoTime();
+        GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(outputStream, BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(gzip ? gzipStream : outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        Long rows;
+        try {
+            rows = readOnlyTransaction.execute(status -> writeRows(dataset, format, writer));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        if (gzipStream != null) {
+            gzipStream.finish();
+        }
+        outputStream.flush();
+
+        logger.info("Exported {} {} rows as {} in {} ms", rows, dataset.getPath(), format,
+                (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    private long writeRows(ExportDataset dataset, ExportFormat format, Writer writer) {
+        Session session = entityManager.unwrap(Session.class);
+        // The fetch size makes drivers such as PostgreSQL's stream the result in batches instead of loading it all
+        try (ScrollableResults<Object[]> results = session.createSelectionQuery(dataset.getQuery(), Object[].class)
+                .setReadOnly(true)
+                .setFetchSize(fetchSize)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            List<String> columns = dataset.getColumns();
+            long rows = 0;
+            if (format == ExportFormat.CSV) {
+                writeCsvLine(writer, columns.toArray());
+                while (results.next()) {
+                    writeCsvLine(writer, results.get());
+                    rows++;
+                }
+            } else {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                // One object per line: the newline is written by hand instead of the default space separator
+                generator.setRootValueSeparator(null);
+                while (results.next()) {
+                    writeJsonLine(generator, columns, results.get());
+                    rows++;
+                }
+                generator.flush();
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(csvField(values[i].toString()));
+            }
+        }
+        writer.write('\n');
+    }
+
+    static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static void writeJsonLine(JsonGenerator generator, List<String> columns, Object[] values)
+            throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                generator.writeNullField(columns.get(i));
+            } else if (value instanceof Number number) {
+                generator.writeNumberField(columns.get(i), number.longValue());
+            } else {
+                generator.writeStringField(columns.get(i), value.toString());
+            }
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
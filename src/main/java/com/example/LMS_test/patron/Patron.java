@@ -3,7 +3,7 @@ package com.example.LMS_test.patron;
 import com.example.LMS_test.ban.BanRecord;
 import com.example.LMS_test.baseEntity.BaseEntity;
 import com.example.LMS_test.borrow.BorrowingRecord;
-import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -25,11 +25,11 @@ public class Patron extends BaseEntity {
     private String contactInfo;
 
     @OneToMany(mappedBy = "patron", fetch = FetchType.LAZY)
-    @JsonManagedReference
+    @JsonIgnore
     private List<BorrowingRecord> borrowingRecords;
 
     @OneToMany(mappedBy = "patron", fetch = FetchType.LAZY)
-    @JsonManagedReference
+    @JsonIgnore
     private List<BanRecord> banRecords;
 
 
@@ -1,6 +1,11 @@
 package com.example.LMS_test.patron;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+
 public interface PatronRepository extends JpaRepository<Patron, Long> {
+
+    List<Patron> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
@@ -5,7 +5,9 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -17,14 +19,17 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PatronService {
     private static final Logger logger = LoggerFactory.getLogger(PatronService.class);
+    static final String PATRONS_CACHE = "patrons";
+    static final String PATRON_LISTS_CACHE = "patronLists";
+
     private final PatronRepository patronRepository;
 
-    @Cacheable("patrons")
+    @Cacheable(PATRON_LISTS_CACHE)
     public List<Patron> getAll() {
         return patronRepository.findAll();
     }
 
-    @Cacheable(value = "patrons", key = "#id")
+    @Cacheable(value = PATRONS_CACHE, key = "#id", sync = true)
     public Patron getById(Long id) {
         return patronRepository.findById(id).orElseThrow(() -> {
             logger.warn("Patron with id {} not found", id);
@@ -32,13 +37,13 @@ public class PatronService {
         });
     }
 
-    @CacheEvict(value = "patrons", allEntries = true)
+    @CacheEvict(value = PATRON_LISTS_CACHE, allEntries = true)
     @Transactional
     public Patron create(PatronRequest patronRequest) {
         logger.debug("Creating new patron with name: {}", patronRequest.getName());
         try {
             Patron patron = new Patron(patronRequest.getName(), patronRequest.getContactInfo(), null, null);
-            Patron savedPatron = patronRepository.save(patron);
+            Patron savedPatron = patronRepository.saveAndFlush(patron);
             logger.info("New patron created with ID: {}", savedPatron.getId());
             return savedPatron;
         } catch (DataIntegrityViolationException e) {
@@ -50,7 +55,8 @@ public class PatronService {
         }
     }
 
-    @CacheEvict(value = "patrons", allEntries = true)
+    @Caching(put = @CachePut(value = PATRONS_CACHE, key = "#id"),
+            evict = @CacheEvict(value = PATRON_LISTS_CACHE, allEntries = true))
     @Transactional
     public Patron update(Long id, PatronRequest patronRequest) {
         logger.debug("Updating patron with ID: {}", id);
@@ -62,7 +68,7 @@ public class PatronService {
                 patron.setContactInfo(patronRequest.getContactInfo());
             }
             try {
-                Patron updatedPatron = patronRepository.save(patron);
+                Patron updatedPatron = patronRepository.saveAndFlush(patron);
                 logger.info("Updated patron with ID: {}, new name: {}", id, patronRequest.getName());
                 return updatedPatron;
             } catch (DataIntegrityViolationException e) {
@@ -75,7 +81,9 @@ public class PatronService {
         });
     }
 
-    @CacheEvict(value = "patrons", allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(value = PATRONS_CACHE, key = "#id"),
+            @CacheEvict(value = PATRON_LISTS_CACHE, allEntries = true)})
     public void delete(Long id) {
         logger.debug("Deleting patron with ID: {}", id);
         Patron patron = patronRepository.findById(id)
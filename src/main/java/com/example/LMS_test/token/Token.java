@@ -5,12 +5,18 @@ import com.example.LMS_test.user.User;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
+
 @Builder
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_token_user_expired_revoked", columnList = "user_id, expired, revoked"),
+        @Index(name = "idx_token_expires_at", columnList = "expiresAt")
+})
 public class Token extends BaseEntity {
 
     @Column(unique = true)
@@ -23,6 +29,9 @@ public class Token extends BaseEntity {
 
     public boolean expired;
 
+    // Expiration claim of the JWT, kept so revoked tokens can be forgotten once they could no longer be used
+    public LocalDateTime expiresAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     public User user;
 }
@@ -0,0 +1,86 @@
+package com.example.LMS_test.token;
+
+import com.example.LMS_test.config.JwtService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes token rows whose JWT has expired, a bounded batch at a time, so the token table
+ * (and the per-user valid-token lookup done on every login) stops growing with account age.
+ * Revoked tokens that have not expired yet are kept, the revocation registry is loaded from them.
+ * Legacy rows stored without an expiry first get it from the JWT's own {@code exp} claim.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenCompactionJob {
+    private static final Logger logger = LoggerFactory.getLogger(TokenCompactionJob.class);
+
+    private final TokenRepository tokenRepository;
+    private final JwtService jwtService;
+    private final AtomicLong purgedTotal = new AtomicLong();
+
+    @Value("${token.compaction.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${token.compaction.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    @Scheduled(fixedDelayString = "${token.compaction.interval-ms:900000}",
+            initialDelayString = "${token.compaction.interval-ms:900000}")
+    public void compact() {
+        LocalDateTime now = LocalDateTime.now();
+        backfillExpiry(now);
+        int purged = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Long> ids = tokenRepository.findIdsExpiredBefore(now, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            tokenRepository.deleteAllByIdInBatch(ids);
+            purged += ids.size();
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+        purgedTotal.addAndGet(purged);
+        if (purged > 0) {
+            logger.info("Token compaction purged {} expired tokens ({} in total)", purged, purgedTotal.get());
+        }
+    }
+
+    private void backfillExpiry(LocalDateTime now) {
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Token> tokens = tokenRepository.findByExpiresAtIsNull(PageRequest.of(0, batchSize));
+            if (tokens.isEmpty()) {
+                return;
+            }
+            for (Token token : tokens) {
+                Date expiration = jwtService.readExpiration(token.getToken());
+                // A token whose expiry cannot be read is rejected by the JWT filter anyway
+                token.setExpiresAt(expiration != null
+                        ? LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault())
+                        : now);
+            }
+            tokenRepository.saveAll(tokens);
+            logger.info("Token compaction backfilled the expiry of {} legacy tokens", tokens.size());
+            if (tokens.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    public long getPurgedTotal() {
+        return purgedTotal.get();
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.LMS_test.token;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,9 +13,19 @@ public interface TokenRepository extends JpaRepository<Token, Long> {
     @Query(value = """
             select t from Token t inner join User u\s
             on t.user.id = u.id\s
-            where u.id = :id and (t.expired = false or t.revoked = false)\s
+            where u.id = :id and t.expired = false and t.revoked = false\s
             """)
     List<Token> findAllValidTokenByUser(Long id);
 
     Optional<Token> findByToken(String token);
+
+    @Query("select t from Token t where t.revoked = true and (t.expiresAt is null or t.expiresAt > :now)")
+    List<Token> findAllRevokedNotExpired(LocalDateTime now);
+
+    // Rows whose JWT can no longer be used; legacy rows without an expiry are backfilled first, never dropped blind
+    @Query("select t.id from Token t where t.expiresAt < :now")
+    List<Long> findIdsExpiredBefore(LocalDateTime now, Pageable pageable);
+
+    // Legacy rows written before the expiry was stored
+    List<Token> findByExpiresAtIsNull(Pageable pageable);
 }
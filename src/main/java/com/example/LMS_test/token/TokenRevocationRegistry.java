@@ -0,0 +1,72 @@
+package com.example.LMS_test.token;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of revoked access tokens, so the JWT filter can enforce revocation without querying the token table.
+ * <p>
+ * Tokens are stored as a 64-bit fingerprint (the first 8 bytes of their SHA-256) mapped to their expiry.
+ * The set is loaded from the token table at startup, extended by {@link #revoke(Collection)} and purged
+ * of entries whose JWT has expired anyway.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    private final TokenRepository tokenRepository;
+
+    // fingerprint -> expiry in epoch millis
+    private final ConcurrentHashMap<Long, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        revoke(tokenRepository.findAllRevokedNotExpired(LocalDateTime.now()));
+        logger.info("Token revocation registry loaded with {} tokens", revokedTokens.size());
+    }
+
+    public boolean isRevoked(String token) {
+        return revokedTokens.containsKey(fingerprint(token));
+    }
+
+    public void revoke(Collection<Token> tokens) {
+        for (Token token : tokens) {
+            long expiresAt = token.getExpiresAt() != null
+                    ? token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    : Long.MAX_VALUE;
+            revokedTokens.put(fingerprint(token.getToken()), expiresAt);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        int before = revokedTokens.size();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt < now);
+        logger.debug("Purged {} expired tokens from revocation registry", before - revokedTokens.size());
+    }
+
+    private long fingerprint(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
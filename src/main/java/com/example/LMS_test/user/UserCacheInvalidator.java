@@ -0,0 +1,47 @@
+package com.example.LMS_test.user;
+
+import com.example.LMS_test.config.ApplicationConfig;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops a user from the principal cache whenever the row changes, so password or role updates
+ * take effect on the next request instead of after the cache entry expires. A renamed user is evicted under
+ * the username it was loaded with as well as the new one.
+ * <p>
+ * Hibernate creates entity listeners while building the EntityManagerFactory, so the cache manager is only
+ * resolved on the first eviction: depending on it directly would pull the cache infrastructure, and anything
+ * it needs, into that bootstrap.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCacheInvalidator {
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    @PostLoad
+    @PostPersist
+    public void remember(User user) {
+        user.setPersistedUsername(user.getUsername());
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void evict(User user) {
+        Cache cache = cacheManager.getObject().getCache(ApplicationConfig.USERS_CACHE);
+        if (cache != null) {
+            cache.evict(user.getUsername());
+            String persistedUsername = user.getPersistedUsername();
+            if (persistedUsername != null && !persistedUsername.equals(user.getUsername())) {
+                cache.evict(persistedUsername);
+            }
+        }
+        remember(user);
+    }
+}
@@ -0,0 +1,20 @@
+-- PostgreSQL-only refinements of the @Index declarations on BorrowingRecord and BanRecord.
+-- Only a small fraction of borrowing_record rows are open loans, so indexing just those rows keeps
+-- the indexes the borrow/return path reads tiny no matter how much history accumulates.
+-- Idempotent, applied on every start by the postgres profile. The full composite indexes from the entity
+-- mappings are left in place: ddl-auto=update would only recreate them on the next start.
+
+-- Patron's open loan (eligibility check, batch borrow); one row per patron at most
+CREATE INDEX IF NOT EXISTS idx_borrowing_open_by_patron
+    ON borrowing_record (patron_id, borrow_date DESC) INCLUDE (book_id)
+    WHERE return_date IS NULL;
+
+-- Open loan of a book (return, batch return)
+CREATE INDEX IF NOT EXISTS idx_borrowing_open_by_book
+    ON borrowing_record (book_id) INCLUDE (patron_id, borrow_date)
+    WHERE return_date IS NULL;
+
+-- Open loans by age (overdue detection)
+CREATE INDEX IF NOT EXISTS idx_borrowing_open_by_borrow_date
+    ON borrowing_record (borrow_date, id)
+    WHERE return_date IS NULL;
@@ -0,0 +1,86 @@
+package com.example.LMS_test.aspect;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LoggingAspectTest {
+
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+
+    @Mock
+    private MethodSignature signature;
+
+    private final Logger accessLogger = (Logger) LoggerFactory.getLogger("access");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+    private final LoggingAspect underTest = new LoggingAspect(request);
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        accessLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accessLogger.detachAppender(appender);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void logControllerMethods_ErrorRecordIsValidJsonWhateverTheText() throws Throwable {
+        // Arrange
+        String route = "/api/books/\"{id}\"\\x";
+        String userName = "Zoë \"admin\"\t\u0001";
+        String message = "Line one\nline \"two\" é书 \u0007";
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, route);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userName, null, List.of()));
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(signature.getMethod()).thenReturn(Object.class.getMethod("toString"));
+        when(joinPoint.getTarget()).thenReturn(new Object());
+        when(joinPoint.proceed()).thenThrow(new ResponseStatusException(HttpStatus.BAD_REQUEST, message));
+
+        // Act
+        assertThatThrownBy(() -> underTest.logControllerMethods(joinPoint))
+                .isInstanceOf(ResponseStatusException.class);
+
+        // Assert
+        assertThat(appender.list).hasSize(1);
+        String line = appender.list.get(0).getFormattedMessage();
+        assertThat(line).doesNotContain("\n", "\t", "\u0001", "\u0007");
+        JsonNode record = new ObjectMapper().readTree(line);
+        assertThat(record.get("method").asText()).isEqualTo("GET");
+        assertThat(record.get("route").asText()).isEqualTo(route);
+        assertThat(record.get("handler").asText()).isEqualTo("Object.toString");
+        assertThat(record.get("status").asInt()).isEqualTo(400);
+        assertThat(record.get("user").asText()).isEqualTo(userName);
+        assertThat(record.get("error").asText()).contains(message);
+    }
+}
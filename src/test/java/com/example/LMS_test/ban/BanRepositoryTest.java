@@ -9,9 +9,10 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
 import java.time.LocalDate;
-import java.util.Optional;
+import java.util.List;
+import java.util.Set;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
 class BanRepositoryTest {
@@ -65,23 +66,24 @@ class BanRepositoryTest {
     }
 
     @Test
-    void findByPatronAndBanUntilAfter() {
+    void findByPatron_IdInAndBanUntilAfter() {
         // Act
-        Optional<BanRecord> result = underTest.findByPatronAndBanUntilAfter(patron1, LocalDate.now());
+        List<BanRecord> result = underTest.findByPatron_IdInAndBanUntilAfter(
+                List.of(patron1.getId(), patron2.getId()), LocalDate.now());
 
         // Assert
-        assertThat(result).isPresent().hasValueSatisfying(record -> {
+        assertThat(result).singleElement().satisfies(record -> {
             assertThat(record.getId()).isEqualTo(ban3.getId());
-            assertThat(record.getPatron().getName()).isEqualTo(ban3.getPatron().getName());
+            assertThat(record.getBanUntil()).isEqualTo(ban3.getBanUntil());
         });
     }
 
     @Test
-    void findByPatronAndBanUntilAfterNotBaned() {
+    void findPatronIdsBannedAfter() {
         // Act
-        Optional<BanRecord> result = underTest.findByPatronAndBanUntilAfter(patron2, LocalDate.now());
+        Set<Long> result = underTest.findPatronIdsBannedAfter(List.of(patron1.getId(), patron2.getId()), LocalDate.now());
 
         // Assert
-        assertThat(result).isEmpty();
+        assertThat(result).containsExactly(patron1.getId());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,107 @@
+package com.example.LMS_test.book;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookAvailabilityIndexTest {
+
+    private BookAvailabilityIndex underTest = new BookAvailabilityIndex(60_000, 100);
+
+    @BeforeEach
+    void setUp() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void tryClaim_OnlyOnceWhileTheTransactionRuns() {
+        assertThat(underTest.tryClaim(1L)).isTrue();
+        assertThat(underTest.tryClaim(1L)).isFalse();
+        assertThat(underTest.tryClaim(2L)).isTrue();
+    }
+
+    @Test
+    void tryClaim_CommittedBorrowIsRememberedAsBorrowed() {
+        // Arrange
+        underTest.tryClaim(1L);
+
+        // Act
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Assert
+        assertThat(underTest.isKnownBorrowed(1L)).isTrue();
+        assertThat(underTest.tryClaim(1L)).isTrue();
+    }
+
+    @Test
+    void tryClaim_RolledBackClaimIsDropped() {
+        // Arrange
+        underTest.tryClaim(1L);
+
+        // Act
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Assert
+        assertThat(underTest.isKnownBorrowed(1L)).isFalse();
+        assertThat(underTest.tryClaim(1L)).isTrue();
+    }
+
+    @Test
+    void tryClaim_OutsideTransactionHoldsNoClaim() {
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(underTest.tryClaim(1L)).isTrue();
+        assertThat(underTest.tryClaim(1L)).isTrue();
+    }
+
+    @Test
+    void markBorrowed_AppliesAtOnceAndReturnAfterCommitDropsIt() {
+        // Arrange
+        underTest.markBorrowed(1L);
+        assertThat(underTest.isKnownBorrowed(1L)).isTrue();
+
+        // Act
+        underTest.markAvailable(1L);
+
+        // Assert
+        assertThat(underTest.isKnownBorrowed(1L)).isTrue();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(underTest.isKnownBorrowed(1L)).isFalse();
+    }
+
+    @Test
+    void markBorrowed_HintExpires() throws InterruptedException {
+        // Arrange: a return on another node is only seen once the hint expires
+        underTest = new BookAvailabilityIndex(20, 100);
+        underTest.markBorrowed(1L);
+
+        // Act
+        Thread.sleep(50);
+
+        // Assert
+        assertThat(underTest.isKnownBorrowed(1L)).isFalse();
+    }
+
+    private void complete(int status) {
+        var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        });
+        TransactionSynchronizationManager.initSynchronization();
+    }
+}
@@ -11,7 +11,6 @@ import org.springframework.http.ResponseEntity;
 
 import java.time.LocalDate;
 import java.util.Arrays;
-import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -39,20 +38,22 @@ class BookControllerTest {
     }
 
     @Test
-    void getAllBooks_ShouldReturnAllBooks() {
+    void getBooks_ShouldReturnPageAfterCursor() {
         // Arrange
-        List<Book> books = Arrays.asList(book1, book2);
-        when(bookService.getAll()).thenReturn(books);
+        BookPage page = new BookPage(Arrays.asList(book1, book2), 2L);
+        when(bookService.getPage(0L, 2)).thenReturn(page);
 
         // Act
-        ResponseEntity<List<Book>> response = bookController.getAllBooks();
+        ResponseEntity<BookPage> response = bookController.getBooks(0L, 2);
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(response.getBody())
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getContent())
                 .hasSize(2)
                 .containsExactly(book1, book2);
-        verify(bookService, times(1)).getAll();
+        assertThat(response.getBody().getNextCursor()).isEqualTo(2L);
+        verify(bookService, times(1)).getPage(0L, 2);
     }
 
     @Test
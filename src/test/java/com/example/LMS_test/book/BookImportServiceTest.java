@@ -0,0 +1,169 @@
+package com.example.LMS_test.book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookImportServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookSearchIndex searchIndex;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    private BookImportService underTest;
+
+    @BeforeEach
+    void setUp() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        underTest = new BookImportService(bookRepository, searchIndex, validator,
+                transactionTemplate, new ObjectMapper(), cacheManager);
+
+        AtomicLong ids = new AtomicLong();
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+        lenient().when(bookRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            books.forEach(book -> book.setId(ids.incrementAndGet()));
+            return books;
+        });
+    }
+
+    @Test
+    void importBooks_CsvReportsErrorsPerLine() {
+        // Arrange
+        String csv = """
+                title,author,isbn,publishDate
+                The Great Gatsby,F. Scott Fitzgerald,9780743273565,1925-04-10
+                "Great Expectations, Vol. 1",Charles Dickens,9780141439563,1861-08-01
+                The Great Gatsby,F. Scott Fitzgerald,9780743273565,1925-04-10
+                No Isbn Digits,Someone,97807432735AB,2000-01-01
+                From The Future,Someone,9780000000001,%s
+                Bad Date,Someone,9780000000002,10/04/1925
+                """.formatted(LocalDate.now().plusDays(1));
+        when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of());
+
+        // Act
+        BookImportResult result = underTest.importBooks(stream(csv), BookImportFormat.CSV);
+
+        // Assert
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getDuplicates()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getErrors()).extracting(BookImportError::getLine).containsExactly(5L, 6L, 7L);
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("ISBN must contain only numbers");
+        assertThat(result.getErrors().get(1).getMessage()).isEqualTo("Publish date cannot be in the future");
+
+        ArgumentCaptor<List<Book>> saved = ArgumentCaptor.forClass(List.class);
+        verify(bookRepository, times(1)).saveAll(saved.capture());
+        assertThat(saved.getValue()).extracting(Book::getTitle)
+                .containsExactly("The Great Gatsby", "Great Expectations, Vol. 1");
+        verify(searchIndex, times(2)).index(any(Book.class));
+    }
+
+    @Test
+    void importBooks_JsonlSkipsBooksAlreadyInCatalog() {
+        // Arrange
+        String jsonl = """
+                {"title":"The Great Gatsby","author":"F. Scott Fitzgerald","isbn":"9780743273565","publishDate":"1925-04-10"}
+                {"title":"Great Expectations","author":"Charles Dickens","isbn":"9780141439563","publishDate":"1861-08-01"}
+                {"title": broken
+                """;
+        Book existing = new Book("The Great Gatsby", "F. Scott Fitzgerald", "9780743273565", LocalDate.of(1925, 4, 10), BookStatus.AVAILABLE, null);
+        when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of(existing));
+
+        // Act
+        BookImportResult result = underTest.importBooks(stream(jsonl), BookImportFormat.JSONL);
+
+        // Assert
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getDuplicates()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors().get(0).getLine()).isEqualTo(3);
+        verify(searchIndex, times(1)).index(any(Book.class));
+    }
+
+    @Test
+    void importBooks_WritesOneTransactionPerChunk() {
+        // Arrange
+        StringBuilder csv = new StringBuilder("title,author,isbn,publishDate\n");
+        for (int i = 0; i < 2500; i++) {
+            csv.append("Title ").append(i).append(",Author,").append(String.format("%013d", i)).append(",2000-01-01\n");
+        }
+        when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of());
+
+        // Act
+        BookImportResult result = underTest.importBooks(stream(csv.toString()), BookImportFormat.CSV);
+
+        // Assert
+        assertThat(result.getImported()).isEqualTo(2500);
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(bookRepository, times(3)).findByIsbnIn(anyCollection());
+    }
+
+    @Test
+    void importBooks_RowRejectedByDatabaseFailsAlone() {
+        // Arrange
+        String csv = """
+                title,author,isbn,publishDate
+                Title 1,Author,9780000000001,2000-01-01
+                Title 2,Author,9780000000002,2000-01-01
+                Rejected,Author,9780000000003,2000-01-01
+                Title 4,Author,9780000000004,2000-01-01
+                """;
+        when(bookRepository.findByIsbnIn(anyCollection())).thenReturn(List.of());
+        AtomicLong ids = new AtomicLong();
+        when(bookRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            if (books.stream().anyMatch(book -> book.getTitle().equals("Rejected"))) {
+                throw new DataIntegrityViolationException("value too long for column");
+            }
+            books.forEach(book -> book.setId(ids.incrementAndGet()));
+            return books;
+        });
+
+        // Act
+        BookImportResult result = underTest.importBooks(stream(csv), BookImportFormat.CSV);
+
+        // Assert
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(BookImportError::getLine).containsExactly(4L);
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("Rejected by the database: value too long for column");
+        verify(searchIndex, times(3)).index(any(Book.class));
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
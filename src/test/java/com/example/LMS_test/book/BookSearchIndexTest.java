@@ -0,0 +1,84 @@
+package com.example.LMS_test.book;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class BookSearchIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @InjectMocks
+    private BookSearchIndex underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest.index(book(1L, "The Great Gatsby", "F. Scott Fitzgerald", "9780743273565"));
+        underTest.index(book(2L, "Tender Is the Night", "F. Scott Fitzgerald", "9780684801544"));
+        underTest.index(book(3L, "Great Expectations", "Charles Dickens", "9780141439563"));
+    }
+
+    @Test
+    void search_PrefixMatch() {
+        BookSearchResult result = underTest.search("gre", 0, 10);
+
+        assertThat(result.getTotal()).isEqualTo(2);
+        assertThat(result.getHits()).extracting(BookSearchHit::getId).containsExactlyInAnyOrder(1L, 3L);
+    }
+
+    @Test
+    void search_AllTermsMustMatch() {
+        BookSearchResult result = underTest.search("great fitz", 0, 10);
+
+        assertThat(result.getHits()).extracting(BookSearchHit::getId).containsExactly(1L);
+    }
+
+    @Test
+    void search_IsbnAndTitleRankAboveAuthor() {
+        underTest.index(book(4L, "Scott Pilgrim", "Bryan Lee O'Malley", "9781932664089"));
+
+        BookSearchResult result = underTest.search("scott", 0, 10);
+
+        assertThat(result.getHits().get(0).getId()).isEqualTo(4L);
+        assertThat(result.getTotal()).isEqualTo(3);
+    }
+
+    @Test
+    void search_Paginates() {
+        BookSearchResult result = underTest.search("f", 1, 1);
+
+        assertThat(result.getTotal()).isEqualTo(2);
+        assertThat(result.getHits()).hasSize(1);
+    }
+
+    @Test
+    void remove_DropsBookFromResults() {
+        underTest.remove(1L);
+
+        assertThat(underTest.search("gatsby", 0, 10).getTotal()).isZero();
+        assertThat(underTest.search("great", 0, 10).getHits()).extracting(BookSearchHit::getId).containsExactly(3L);
+    }
+
+    @Test
+    void index_UpdateReplacesOldTerms() {
+        underTest.index(book(3L, "Bleak House", "Charles Dickens", "9780141439723"));
+
+        assertThat(underTest.search("expectations", 0, 10).getTotal()).isZero();
+        assertThat(underTest.search("bleak", 0, 10).getHits()).extracting(BookSearchHit::getId).containsExactly(3L);
+    }
+
+    private Book book(Long id, String title, String author, String isbn) {
+        Book book = new Book(title, author, isbn, LocalDate.of(1925, 4, 10), BookStatus.AVAILABLE, null);
+        book.setId(id);
+        return book;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.LMS_test.book;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs create against the real schema: ids come from a sequence, so a duplicate only shows up when the insert is
+ * flushed, which has to happen inside {@link BookService#create} for it to be answered with 400.
+ */
+@DataJpaTest
+@Import(BookService.class)
+class BookServiceDuplicateTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @MockitoBean
+    private BookSearchIndex searchIndex;
+
+    @Test
+    void create_DuplicateTitleAuthorIsbnIsRejected() {
+        // Arrange
+        BookRequest bookRequest = new BookRequest("Clean Code", "Martin", "9780132350884", LocalDate.of(2008, 8, 1));
+        bookService.create(bookRequest);
+
+        // Act & Assert
+        assertThatThrownBy(() -> bookService.create(bookRequest))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
@@ -1,16 +1,25 @@
 package com.example.LMS_test.book;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -24,6 +33,12 @@ class BookServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private BookSearchIndex searchIndex;
+
+    @Mock
+    private CacheManager cacheManager;
+
     @InjectMocks
     private BookService bookService;
 
@@ -40,7 +55,7 @@ class BookServiceTest {
     @Test
     void create_Success() {
         // Arrange
-        when(bookRepository.save(any(Book.class))).thenReturn(book);
+        when(bookRepository.saveAndFlush(any(Book.class))).thenReturn(book);
 
         // Act
         Book result = bookService.create(bookRequest);
@@ -54,7 +69,26 @@ class BookServiceTest {
         assertThat(result.getPublishDate()).isEqualTo(LocalDate.of(1925, 4, 10));
         assertThat(result.getBookStatus()).isEqualTo(BookStatus.AVAILABLE);
 
-        verify(bookRepository, times(1)).save(any(Book.class));
+        verify(bookRepository, times(1)).saveAndFlush(any(Book.class));
+        verify(searchIndex, times(1)).index(book);
+    }
+
+    @Test
+    void create_IndexesForSearchOnlyAfterCommit() {
+        // Arrange
+        when(bookRepository.saveAndFlush(any(Book.class))).thenReturn(book);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            bookService.create(bookRequest);
+
+            // Assert
+            verify(searchIndex, never()).index(any(Book.class));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(searchIndex, times(1)).index(book);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
     }
 
     @Test
@@ -68,13 +102,13 @@ class BookServiceTest {
                 .hasMessageContaining("Publish date cannot be in the future")
                 .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
 
-        verify(bookRepository, never()).save(any(Book.class));
+        verify(bookRepository, never()).saveAndFlush(any(Book.class));
     }
 
     @Test
     void create_DataIntegrityViolationException() {
         // Arrange
-        when(bookRepository.save(any(Book.class)))
+        when(bookRepository.saveAndFlush(any(Book.class)))
                 .thenThrow(new DataIntegrityViolationException("Unique constraint violation"));
 
         // Act & Assert
@@ -83,13 +117,13 @@ class BookServiceTest {
                 .hasMessageContaining("Book with this ISBN already exists or A book with the same title and author already exists.")
                 .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
 
-        verify(bookRepository, times(1)).save(any(Book.class));
+        verify(bookRepository, times(1)).saveAndFlush(any(Book.class));
     }
 
     @Test
     void create_UnexpectedError() {
         // Arrange
-        when(bookRepository.save(any(Book.class)))
+        when(bookRepository.saveAndFlush(any(Book.class)))
                 .thenThrow(new RuntimeException("Unexpected error"));
 
         // Act & Assert
@@ -98,14 +132,14 @@ class BookServiceTest {
                 .hasMessageContaining("An unexpected error occurred")
                 .extracting("status").isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
 
-        verify(bookRepository, times(1)).save(any(Book.class));
+        verify(bookRepository, times(1)).saveAndFlush(any(Book.class));
     }
 
     @Test
     void update_Success() {
         // Arrange
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(bookRepository.save(any(Book.class))).thenReturn(book);
+        when(bookRepository.saveAndFlush(any(Book.class))).thenReturn(book);
 
         // Act
         Book result = bookService.update(1L, bookRequest);
@@ -119,7 +153,7 @@ class BookServiceTest {
         assertThat(result.getPublishDate()).isEqualTo(LocalDate.of(1925, 4, 10));
 
         verify(bookRepository, times(1)).findById(1L);
-        verify(bookRepository, times(1)).save(any(Book.class));
+        verify(bookRepository, times(1)).saveAndFlush(any(Book.class));
     }
 
     @Test
@@ -134,14 +168,14 @@ class BookServiceTest {
                 .extracting("status").isEqualTo(HttpStatus.NOT_FOUND);
 
         verify(bookRepository, times(1)).findById(1L);
-        verify(bookRepository, never()).save(any(Book.class));
+        verify(bookRepository, never()).saveAndFlush(any(Book.class));
     }
 
     @Test
     void update_DataIntegrityViolationException() {
         // Arrange
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(bookRepository.save(any(Book.class)))
+        when(bookRepository.saveAndFlush(any(Book.class)))
                 .thenThrow(new DataIntegrityViolationException("Unique constraint violation"));
 
         // Act & Assert
@@ -151,6 +185,74 @@ class BookServiceTest {
                 .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
 
         verify(bookRepository, times(1)).findById(1L);
-        verify(bookRepository, times(1)).save(any(Book.class));
+        verify(bookRepository, times(1)).saveAndFlush(any(Book.class));
+    }
+
+    @Test
+    void getPage_FullPageReturnsNextCursor() {
+        // Arrange
+        Book next = new Book("Tender Is the Night", "F. Scott Fitzgerald", "9780684801544", LocalDate.of(1934, 4, 12), BookStatus.AVAILABLE, null);
+        next.setId(2L);
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).thenReturn(List.of(book, next));
+
+        // Act
+        BookPage result = bookService.getPage(0L, 2);
+
+        // Assert
+        assertThat(result.getContent()).containsExactly(book, next);
+        assertThat(result.getNextCursor()).isEqualTo(2L);
+    }
+
+    @Test
+    void getPage_LastPageHasNoCursor() {
+        // Arrange
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).thenReturn(List.of(book));
+
+        // Act
+        BookPage result = bookService.getPage(0L, 2);
+
+        // Assert
+        assertThat(result.getContent()).containsExactly(book);
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void forEachPage_WalksCatalogByCursor() {
+        // Arrange
+        Book next = new Book("Tender Is the Night", "F. Scott Fitzgerald", "9780684801544", LocalDate.of(1934, 4, 12), BookStatus.AVAILABLE, null);
+        next.setId(2L);
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(1))).thenReturn(List.of(book));
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(1))).thenReturn(List.of(next));
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(1))).thenReturn(List.of());
+        List<Book> streamed = new ArrayList<>();
+
+        // Act
+        bookService.forEachPage(1, streamed::addAll);
+
+        // Assert
+        assertThat(streamed).containsExactly(book, next);
+        verify(bookRepository, times(3)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void evictCachedBook_EvictsBookAndOnlyThePagesListingIt() {
+        // Arrange
+        Cache books = mock(Cache.class);
+        CaffeineCache pages = new CaffeineCache("bookPages", Caffeine.newBuilder().build());
+        Book other = new Book("Dune", "Frank Herbert", "9780441013593", LocalDate.of(1965, 8, 1), BookStatus.AVAILABLE, null);
+        other.setId(2L);
+        pages.put("0:1", new BookPage(List.of(book), 1L));
+        pages.put("1:1", new BookPage(List.of(other), null));
+        when(cacheManager.getCache("books")).thenReturn(books);
+        when(cacheManager.getCache("bookPages")).thenReturn(pages);
+
+        // Act
+        bookService.evictCachedBook(1L);
+
+        // Assert
+        verify(books, times(1)).evict(1L);
+        assertThat(book.getBookStatus()).isEqualTo(BookStatus.AVAILABLE);
+        assertThat(pages.get("0:1")).isNull();
+        assertThat(pages.get("1:1")).isNotNull();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,222 @@
+package com.example.LMS_test.borrow;
+
+import com.example.LMS_test.book.Book;
+import com.example.LMS_test.book.BookAvailabilityIndex;
+import com.example.LMS_test.book.BookRepository;
+import com.example.LMS_test.book.BookStatus;
+import com.example.LMS_test.patron.Patron;
+import com.example.LMS_test.patron.PatronRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Borrows and returns from many threads at once against the real database. The in-memory availability index is
+ * replaced by a mock that lets every claim through, so each request behaves as if it had arrived on a different
+ * node and only the guarded updates and the open-loan constraint stand between two patrons and the same book, or
+ * one patron and two books.
+ */
+@SpringBootTest
+class BorrowingConcurrencyTest {
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BorrowingCoordinator borrowingCoordinator;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @MockitoBean
+    private BookAvailabilityIndex availabilityIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(availabilityIndex.tryClaim(any())).thenReturn(true);
+    }
+
+    @Test
+    void concurrentBorrowsOfOneBook_ExactlyOneSucceeds() throws Exception {
+        // Arrange
+        Book book = newBook();
+        List<Patron> patrons = newPatrons(THREADS);
+
+        // Act
+        List<Integer> statuses = runConcurrently(patrons.stream()
+                .<Callable<Integer>>map(patron -> () -> status(() -> borrowingCoordinator.borrow(book.getId(), patron.getId())))
+                .toList());
+
+        // Assert
+        assertThat(statuses).filteredOn(status -> status == 200).hasSize(1);
+        assertThat(statuses).allMatch(status -> status == 200 || status == 400 || status == 409);
+        assertThat(borrowingRecordRepository.findByBook_IdInAndReturnDateIsNull(Set.of(book.getId()))).hasSize(1);
+        assertThat(bookRepository.findById(book.getId())).get()
+                .extracting(Book::getBookStatus).isEqualTo(BookStatus.BORROWED);
+    }
+
+    @Test
+    void concurrentBorrowsBySamePatron_OneOpenLoan() throws Exception {
+        // Arrange
+        Patron patron = newPatrons(1).get(0);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            books.add(newBook());
+        }
+
+        // Act
+        List<Integer> statuses = runConcurrently(books.stream()
+                .<Callable<Integer>>map(book -> () -> status(() -> borrowingCoordinator.borrow(book.getId(), patron.getId())))
+                .toList());
+
+        // Assert
+        assertThat(statuses).filteredOn(status -> status == 200).hasSize(1);
+        assertThat(statuses).allMatch(status -> status == 200 || status == 400 || status == 409);
+        assertThat(borrowingRecordRepository.findByPatron_IdInAndReturnDateIsNull(Set.of(patron.getId()))).hasSize(1);
+    }
+
+    // Straight to the service, without the patron locks: as if every request ran on a different node
+    @Test
+    void concurrentBorrowsBySamePatronAcrossNodes_DatabaseKeepsOneOpenLoan() throws Exception {
+        // Arrange
+        Patron patron = newPatrons(1).get(0);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            books.add(newBook());
+        }
+
+        // Act
+        List<Integer> statuses = runConcurrently(books.stream()
+                .<Callable<Integer>>map(book -> () -> status(() -> borrowingService.borrow(book.getId(), patron.getId())))
+                .toList());
+
+        // Assert
+        assertThat(statuses).filteredOn(status -> status == 200).hasSize(1);
+        assertThat(statuses).allMatch(status -> status == 200 || status == 400);
+        assertThat(borrowingRecordRepository.findByPatron_IdInAndReturnDateIsNull(Set.of(patron.getId()))).hasSize(1);
+        Set<Long> bookIds = books.stream().map(Book::getId).collect(Collectors.toSet());
+        assertThat(bookRepository.findAllById(bookIds)).filteredOn(book -> book.getBookStatus() == BookStatus.BORROWED).hasSize(1);
+    }
+
+    @Test
+    void borrowReturnCycles_NoDoubleBorrowsAndNoServerErrors() throws Exception {
+        // Arrange
+        List<Book> books = List.of(newBook(), newBook(), newBook(), newBook());
+        List<Patron> patrons = newPatrons(THREADS);
+        Map<Long, Long> holders = new ConcurrentHashMap<>();
+        AtomicInteger doubleBorrows = new AtomicInteger();
+        AtomicInteger loans = new AtomicInteger();
+
+        // Act
+        List<Integer> unexpected = runConcurrently(patrons.stream().<Callable<Integer>>map(patron -> () -> {
+            int failures = 0;
+            for (int round = 0; round < 25; round++) {
+                Long bookId = books.get(ThreadLocalRandom.current().nextInt(books.size())).getId();
+                int borrowStatus = status(() -> borrowingCoordinator.borrow(bookId, patron.getId()));
+                if (borrowStatus != 200) {
+                    failures += borrowStatus == 400 || borrowStatus == 409 ? 0 : 1;
+                    continue;
+                }
+                loans.incrementAndGet();
+                if (holders.putIfAbsent(bookId, patron.getId()) != null) {
+                    doubleBorrows.incrementAndGet();
+                }
+                // Released before returning: nobody else can borrow the book until the return has committed
+                holders.remove(bookId, patron.getId());
+                int returnStatus;
+                do {
+                    returnStatus = status(() -> borrowingCoordinator.returnBook(bookId, patron.getId()));
+                } while (returnStatus == 409);
+                failures += returnStatus == 200 ? 0 : 1;
+            }
+            return failures;
+        }).toList());
+
+        // Assert
+        assertThat(doubleBorrows.get()).isZero();
+        assertThat(unexpected).allMatch(failures -> failures == 0);
+        assertThat(loans.get()).isPositive();
+        Set<Long> bookIds = books.stream().map(Book::getId).collect(Collectors.toSet());
+        assertThat(borrowingRecordRepository.findByBook_IdInAndReturnDateIsNull(bookIds)).isEmpty();
+        assertThat(bookRepository.findAllById(bookIds)).allMatch(book -> book.getBookStatus() == BookStatus.AVAILABLE);
+    }
+
+    // 200 on success, the status of a ResponseStatusException otherwise; anything else fails the test as a 500 would
+    private static int status(Runnable request) {
+        try {
+            request.run();
+            return 200;
+        } catch (ResponseStatusException e) {
+            return e.getStatusCode().value();
+        }
+    }
+
+    private static <T> List<T> runConcurrently(List<Callable<T>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Book newBook() {
+        return bookRepository.save(new Book("Contended " + UUID.randomUUID(), "Author", null,
+                LocalDate.of(2000, 1, 1), BookStatus.AVAILABLE, null));
+    }
+
+    private List<Patron> newPatrons(int count) {
+        List<Patron> patrons = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Patron patron = new Patron();
+            patron.setName("Patron " + UUID.randomUUID());
+            patron.setContactInfo("contact");
+            patrons.add(patronRepository.save(patron));
+        }
+        return patrons;
+    }
+}
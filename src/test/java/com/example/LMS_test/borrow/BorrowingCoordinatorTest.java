@@ -0,0 +1,103 @@
+package com.example.LMS_test.borrow;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BorrowingCoordinatorTest {
+
+    @Mock
+    private BorrowingService borrowingService;
+
+    @Mock
+    private BorrowingMetrics borrowingMetrics;
+
+    @Spy
+    private PatronLocks patronLocks = new PatronLocks(16);
+
+    @InjectMocks
+    private BorrowingCoordinator underTest;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(underTest, "maxAttempts", 3);
+        ReflectionTestUtils.setField(underTest, "initialBackoffMillis", 1L);
+        ReflectionTestUtils.setField(underTest, "maxBackoffMillis", 2L);
+    }
+
+    @Test
+    void returnBook_RetriesAfterOptimisticLockFailure() {
+        // Arrange
+        BorrowingRecord borrowingRecord = new BorrowingRecord();
+        when(borrowingService.returnBook(1L, 1L))
+                .thenThrow(new ObjectOptimisticLockingFailureException(BorrowingRecord.class, 1L))
+                .thenReturn(borrowingRecord);
+
+        // Act
+        BorrowingRecord result = underTest.returnBook(1L, 1L);
+
+        // Assert
+        assertThat(result).isSameAs(borrowingRecord);
+        verify(borrowingService, times(2)).returnBook(1L, 1L);
+        verify(borrowingMetrics, times(1)).recordConflictRetry();
+    }
+
+    @Test
+    void borrow_ConflictAfterLastAttempt() {
+        // Arrange
+        when(borrowingService.borrow(1L, 1L))
+                .thenThrow(new ObjectOptimisticLockingFailureException(BorrowingRecord.class, 1L));
+
+        // Act & Assert
+        assertThatThrownBy(() -> underTest.borrow(1L, 1L))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting("status").isEqualTo(HttpStatus.CONFLICT);
+
+        verify(borrowingService, times(3)).borrow(1L, 1L);
+        verify(borrowingMetrics, times(1)).recordConflictFailure();
+    }
+
+    @Test
+    void borrow_BusinessRejectionIsNotRetried() {
+        // Arrange
+        when(borrowingService.borrow(1L, 1L))
+                .thenThrow(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Book is currently borrowed"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> underTest.borrow(1L, 1L))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
+
+        verify(borrowingService, times(1)).borrow(1L, 1L);
+        verifyNoInteractions(borrowingMetrics);
+    }
+
+    @Test
+    void borrowBatch_NullItemReachesServiceValidation() {
+        // Arrange
+        List<BorrowingRequest> requests = Arrays.asList(new BorrowingRequest(1L, 1L), null);
+        when(borrowingService.borrowBatch(requests))
+                .thenThrow(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch items cannot be null"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> underTest.borrowBatch(requests))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.LMS_test.borrow;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BorrowingGroupCommitterTest {
+
+    @Mock
+    private BorrowingCoordinator borrowingCoordinator;
+
+    @Mock
+    private BorrowingMetrics borrowingMetrics;
+
+    private BorrowingGroupCommitter underTest;
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void borrow_DisabledGoesStraightToCoordinator() {
+        // Arrange
+        underTest = new BorrowingGroupCommitter(borrowingCoordinator, borrowingMetrics, false, 5, 2, 10, 5_000);
+        BorrowingRecord borrowingRecord = new BorrowingRecord();
+        when(borrowingCoordinator.borrow(1L, 1L)).thenReturn(borrowingRecord);
+
+        // Act
+        BorrowingRecord result = underTest.borrow(1L, 1L);
+
+        // Assert
+        assertThat(result).isSameAs(borrowingRecord);
+        verify(borrowingCoordinator, never()).borrowBatch(anyList());
+        verifyNoInteractions(borrowingMetrics);
+    }
+
+    @Test
+    void borrow_ConcurrentRequestsShareOneCommitAndKeepTheirOwnOutcome() throws Exception {
+        // Arrange: a long window, so only a full group of two triggers the commit
+        underTest = new BorrowingGroupCommitter(borrowingCoordinator, borrowingMetrics, true, 10_000, 2, 10, 5_000);
+        BorrowingRecord borrowingRecord = new BorrowingRecord();
+        when(borrowingCoordinator.borrowBatch(anyList())).thenAnswer(invocation -> {
+            List<BorrowingRequest> requests = invocation.getArgument(0);
+            return requests.stream().map(request -> request.getBookId() == 1L
+                    ? BorrowingResult.builder().success(true).status(200).borrowingRecord(borrowingRecord).build()
+                    : BorrowingResult.builder().success(false).status(400).message("Book is currently borrowed").build())
+                    .toList();
+        });
+
+        // Act
+        CompletableFuture<BorrowingRecord> first = CompletableFuture.supplyAsync(() -> underTest.borrow(1L, 1L));
+        CompletableFuture<BorrowingRecord> second = CompletableFuture.supplyAsync(() -> underTest.borrow(2L, 2L));
+
+        // Assert
+        assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(borrowingRecord);
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(ResponseStatusException.class)
+                .cause().extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
+        verify(borrowingCoordinator, times(1)).borrowBatch(anyList());
+        verify(borrowingCoordinator, never()).borrow(any(), any());
+        verify(borrowingMetrics).recordGroupCommit("borrow", 2);
+    }
+
+    @Test
+    void returnBook_FailedGroupIsRunRequestByRequest() throws Exception {
+        // Arrange
+        underTest = new BorrowingGroupCommitter(borrowingCoordinator, borrowingMetrics, true, 10_000, 2, 10, 5_000);
+        BorrowingRecord firstRecord = new BorrowingRecord();
+        BorrowingRecord secondRecord = new BorrowingRecord();
+        when(borrowingCoordinator.returnBatch(anyList()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(BorrowingRecord.class, 1L));
+        when(borrowingCoordinator.returnBook(1L, 1L)).thenReturn(firstRecord);
+        when(borrowingCoordinator.returnBook(2L, 2L)).thenReturn(secondRecord);
+
+        // Act
+        CompletableFuture<BorrowingRecord> first = CompletableFuture.supplyAsync(() -> underTest.returnBook(1L, 1L));
+        CompletableFuture<BorrowingRecord> second = CompletableFuture.supplyAsync(() -> underTest.returnBook(2L, 2L));
+
+        // Assert
+        assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(firstRecord);
+        assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(secondRecord);
+        verify(borrowingCoordinator, times(1)).returnBatch(anyList());
+    }
+
+    @Test
+    void borrow_LoneRequestTakesTheSingleItemPathAfterTheWindow() {
+        // Arrange
+        underTest = new BorrowingGroupCommitter(borrowingCoordinator, borrowingMetrics, true, 5, 2, 10, 5_000);
+        BorrowingRecord borrowingRecord = new BorrowingRecord();
+        when(borrowingCoordinator.borrow(1L, 1L)).thenReturn(borrowingRecord);
+
+        // Act
+        BorrowingRecord result = underTest.borrow(1L, 1L);
+
+        // Assert
+        assertThat(result).isSameAs(borrowingRecord);
+        verify(borrowingCoordinator, never()).borrowBatch(anyList());
+        verify(borrowingMetrics).recordGroupCommit("borrow", 1);
+    }
+
+    @Test
+    void borrow_AfterShutdownRunsAlone() {
+        // Arrange
+        underTest = new BorrowingGroupCommitter(borrowingCoordinator, borrowingMetrics, true, 10_000, 2, 10, 5_000);
+        BorrowingRecord borrowingRecord = new BorrowingRecord();
+        when(borrowingCoordinator.borrow(1L, 1L)).thenReturn(borrowingRecord);
+        underTest.shutdown();
+
+        // Act
+        BorrowingRecord result = underTest.borrow(1L, 1L);
+
+        // Assert: answered at once instead of waiting on a flusher that is gone
+        assertThat(result).isSameAs(borrowingRecord);
+        verify(borrowingCoordinator, never()).borrowBatch(anyList());
+        verifyNoInteractions(borrowingMetrics);
+    }
+
+    @Test
+    void borrow_StuckCommitTimesOut() throws Exception {
+        // Arrange: the first group never finishes committing
+        underTest = new BorrowingGroupCommitter(borrowingCoordinator, borrowingMetrics, true, 1_000, 2, 10, 200);
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BorrowingRecord borrowingRecord = new BorrowingRecord();
+        when(borrowingCoordinator.borrowBatch(anyList())).thenAnswer(invocation -> {
+            committing.countDown();
+            release.await();
+            List<BorrowingRequest> requests = invocation.getArgument(0);
+            return requests.stream().map(request -> BorrowingResult.builder().success(true).status(200).build()).toList();
+        });
+        when(borrowingCoordinator.borrow(3L, 3L)).thenReturn(borrowingRecord);
+
+        try {
+            // Act
+            CompletableFuture<BorrowingRecord> first = CompletableFuture.supplyAsync(() -> underTest.borrow(1L, 1L));
+            CompletableFuture<BorrowingRecord> second = CompletableFuture.supplyAsync(() -> underTest.borrow(2L, 2L));
+            assertThat(committing.await(5, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<BorrowingRecord> queued = CompletableFuture.supplyAsync(() -> underTest.borrow(3L, 3L));
+
+            // Assert: the group being committed answers 503, the request still queued behind it runs alone
+            for (CompletableFuture<BorrowingRecord> committed : List.of(first, second)) {
+                assertThatThrownBy(() -> committed.get(15, TimeUnit.SECONDS))
+                        .hasCauseInstanceOf(ResponseStatusException.class)
+                        .cause().extracting("status").isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            assertThat(queued.get(15, TimeUnit.SECONDS)).isSameAs(borrowingRecord);
+        } finally {
+            release.countDown();
+        }
+    }
+}
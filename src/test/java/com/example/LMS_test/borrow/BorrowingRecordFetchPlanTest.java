@@ -0,0 +1,177 @@
+package com.example.LMS_test.borrow;
+
+import com.example.LMS_test.ban.BanRecord;
+import com.example.LMS_test.book.Book;
+import com.example.LMS_test.book.BookAvailabilityIndex;
+import com.example.LMS_test.book.BookService;
+import com.example.LMS_test.book.BookStatus;
+import com.example.LMS_test.patron.Patron;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the statement count of the queries behind the borrow and return endpoints, and of the whole
+ * {@link BorrowingService} calls they make, so an eager association or an extra lookup sneaking back in
+ * fails the build instead of fanning out in production.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({BorrowingService.class, BookAvailabilityIndex.class})
+class BorrowingRecordFetchPlanTest {
+
+    @Autowired
+    private BorrowingRecordRepository underTest;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockitoBean
+    private BookService bookService;
+
+    @MockitoBean
+    private BorrowingMetrics borrowingMetrics;
+
+    private Statistics statistics;
+    private Book book;
+    private Patron patron;
+
+    @BeforeEach
+    void setUp() {
+        patron = new Patron();
+        patron.setName("Abd");
+        patron.setContactInfo("1234");
+
+        book = new Book();
+        book.setTitle("Code");
+        book.setAuthor("Tahseen");
+        book.setIsbn("1234567891234");
+        book.setPublishDate(LocalDate.now());
+        book.setBookStatus(BookStatus.BORROWED);
+
+        entityManager.persist(patron);
+        entityManager.persist(book);
+
+        BorrowingRecord borrowingRecord = new BorrowingRecord();
+        borrowingRecord.setBook(book);
+        borrowingRecord.setPatron(patron);
+        borrowingRecord.setBorrowDate(LocalDate.now());
+        entityManager.persist(borrowingRecord);
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void borrow_ThreeStatements() {
+        // Arrange
+        Book available = new Book();
+        available.setTitle("Refactoring");
+        available.setAuthor("Fowler");
+        available.setIsbn("9780134757599");
+        available.setPublishDate(LocalDate.now());
+        available.setBookStatus(BookStatus.AVAILABLE);
+        Patron borrower = new Patron();
+        borrower.setName("Tahseen");
+        borrower.setContactInfo("5678");
+        entityManager.persist(available);
+        entityManager.persist(borrower);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        // Act
+        BorrowingRecord result = borrowingService.borrow(available.getId(), borrower.getId());
+
+        // Assert: eligibility select, guarded book update, loan insert
+        assertThat(result.getId()).isNotNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void returnBook_ThreeStatements() {
+        // Act
+        BorrowingRecord result = borrowingService.returnBook(book.getId(), patron.getId());
+
+        // Assert: loan with its book, guarded loan update, guarded book update
+        assertThat(result.getReturnDate()).isEqualTo(LocalDate.now());
+        assertThat(result.getBook().getBookStatus()).isEqualTo(BookStatus.AVAILABLE);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void returnLookup_FetchesBookInSameStatement() {
+        // Act
+        Optional<BorrowingRecord> result = underTest.findFirstByPatron_IdAndBook_IdAndReturnDateIsNullOrderByBorrowDateDesc(patron.getId(), book.getId());
+
+        // Assert
+        assertThat(result).isPresent();
+        assertThat(Hibernate.isInitialized(result.get().getBook())).isTrue();
+        assertThat(result.get().getBook().getTitle()).isEqualTo("Code");
+        assertThat(result.get().getPatron().getId()).isEqualTo(patron.getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void batchReturnLookup_SingleStatement() {
+        // Act
+        List<BorrowingRecord> result = underTest.findByBook_IdInAndReturnDateIsNull(Set.of(book.getId()));
+
+        // Assert
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getBook().getBookStatus()).isEqualTo(BookStatus.BORROWED);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void borrowEligibility_SingleStatement() {
+        // Arrange
+        entityManager.persist(new BanRecord(LocalDate.now().plusMonths(1), entityManager.find(Patron.class, patron.getId())));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        // Act
+        Optional<BorrowEligibility> result = underTest.findEligibility(book.getId(), patron.getId(), LocalDate.now());
+
+        // Assert
+        assertThat(result).isPresent();
+        assertThat(result.get().getBookStatus()).isEqualTo(BookStatus.BORROWED);
+        assertThat(result.get().isPatronExists()).isTrue();
+        assertThat(result.get().getOpenLoanBorrowDate()).isEqualTo(LocalDate.now());
+        assertThat(result.get().getBanUntil()).isEqualTo(LocalDate.now().plusMonths(1));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void borrowEligibility_UnknownPatron() {
+        // Act
+        Optional<BorrowEligibility> result = underTest.findEligibility(book.getId(), -1L, LocalDate.now());
+
+        // Assert
+        assertThat(result).isPresent();
+        assertThat(result.get().isPatronExists()).isFalse();
+        assertThat(result.get().getOpenLoanBorrowDate()).isNull();
+        assertThat(result.get().getBanUntil()).isNull();
+    }
+}
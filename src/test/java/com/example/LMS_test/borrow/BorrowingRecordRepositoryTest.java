@@ -9,8 +9,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -67,9 +69,9 @@ class BorrowingRecordRepositoryTest {
     }
 
     @Test
-    void findFirstByPatron_IdAndReturnDateIsNullOrderByBorrowDateDesc() {
+    void findFirstByPatron_IdAndBook_IdAndReturnDateIsNullOrderByBorrowDateDesc() {
         // Act
-        Optional<BorrowingRecord> result = underTest.findFirstByPatron_IdAndReturnDateIsNullOrderByBorrowDateDesc(patron.getId());
+        Optional<BorrowingRecord> result = underTest.findFirstByPatron_IdAndBook_IdAndReturnDateIsNullOrderByBorrowDateDesc(patron.getId(), book.getId());
 
         // Assert
         assertThat(result)
@@ -81,16 +83,20 @@ class BorrowingRecordRepositoryTest {
     }
 
     @Test
-    void findFirstByPatron_IdAndBook_IdAndReturnDateIsNullOrderByBorrowDateDesc() {
+    void findOverdueLoans_ResumesAfterPreviousBatch() {
         // Act
-        Optional<BorrowingRecord> result = underTest.findFirstByPatron_IdAndBook_IdAndReturnDateIsNullOrderByBorrowDateDesc(patron.getId(), book.getId());
+        List<OverdueLoan> first = underTest.findOverdueLoans(LocalDate.of(2025, 3, 1), LocalDate.of(1900, 1, 1), 0L, 1, 0, Limit.of(1));
+        List<OverdueLoan> second = underTest.findOverdueLoans(LocalDate.of(2025, 3, 1), first.get(0).getBorrowDate(), first.get(0).getId(), 1, 0, Limit.of(1));
+        List<OverdueLoan> beforeCutoff = underTest.findOverdueLoans(LocalDate.of(2025, 1, 1), LocalDate.of(1900, 1, 1), 0L, 1, 0, Limit.of(10));
+        List<OverdueLoan> otherPartition = underTest.findOverdueLoans(LocalDate.of(2025, 3, 1), LocalDate.of(1900, 1, 1), 0L, 2, (int) ((patron.getId() + 1) % 2), Limit.of(10));
 
         // Assert
-        assertThat(result)
-                .isPresent()
-                .hasValueSatisfying(record -> {
-                    assertThat(record.getId()).isEqualTo(borrowingRecord2.getId());
-                    assertThat(record.getBorrowDate()).isEqualTo(borrowingRecord2.getBorrowDate());
-                });
+        assertThat(first.size()).isEqualTo(1);
+        assertThat(first.get(0).getBorrowDate()).isEqualTo(LocalDate.of(2024, 12, 1));
+        assertThat(first.get(0).getPatronId()).isEqualTo(patron.getId());
+        assertThat(second.size()).isEqualTo(1);
+        assertThat(second.get(0).getId()).isEqualTo(borrowingRecord2.getId());
+        assertThat(beforeCutoff.size()).isEqualTo(1);
+        assertThat(otherPartition.isEmpty()).isTrue();
     }
-}
\ No newline at end of file
+}
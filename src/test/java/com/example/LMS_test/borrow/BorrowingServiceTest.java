@@ -3,21 +3,29 @@ package com.example.LMS_test.borrow;
 import com.example.LMS_test.ban.BanRecord;
 import com.example.LMS_test.ban.BanRepository;
 import com.example.LMS_test.book.Book;
+import com.example.LMS_test.book.BookAvailabilityIndex;
 import com.example.LMS_test.book.BookRepository;
+import com.example.LMS_test.book.BookService;
 import com.example.LMS_test.book.BookStatus;
 import com.example.LMS_test.patron.Patron;
 import com.example.LMS_test.patron.PatronRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -39,6 +47,15 @@ class BorrowingServiceTest {
     @Mock
     private BanRepository banRepository;
 
+    @Mock
+    private BookAvailabilityIndex availabilityIndex;
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private BorrowingMetrics borrowingMetrics;
+
     @InjectMocks
     private BorrowingService borrowingService;
 
@@ -69,9 +86,13 @@ class BorrowingServiceTest {
     @Test
     void borrow_Success() {
         // Arrange
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(patronRepository.findById(1L)).thenReturn(Optional.of(patron));
-        when(borrowingRecordRepository.save(any(BorrowingRecord.class))).thenReturn(borrowingRecord);
+        when(availabilityIndex.tryClaim(1L)).thenReturn(true);
+        when(borrowingRecordRepository.findEligibility(1L, 1L, LocalDate.now()))
+                .thenReturn(Optional.of(new BorrowEligibility(BookStatus.AVAILABLE, true, null, null)));
+        when(bookRepository.updateStatus(1L, BookStatus.AVAILABLE, BookStatus.BORROWED)).thenReturn(1);
+        when(bookRepository.getReferenceById(1L)).thenReturn(book);
+        when(patronRepository.getReferenceById(1L)).thenReturn(patron);
+        when(borrowingRecordRepository.saveAndFlush(any(BorrowingRecord.class))).thenReturn(borrowingRecord);
 
         // Act
         BorrowingRecord result = borrowingService.borrow(1L, 1L);
@@ -82,15 +103,37 @@ class BorrowingServiceTest {
         assertThat(result.getPatron()).isEqualTo(patron);
         assertThat(result.getReturnDate()).isEqualTo(LocalDate.now().plusMonths(3));
 
-        verify(bookRepository, times(1)).findById(1L);
-        verify(patronRepository, times(1)).findById(1L);
-        verify(borrowingRecordRepository, times(1)).save(any(BorrowingRecord.class));
+        verify(bookRepository, never()).findById(anyLong());
+        verify(patronRepository, never()).findById(anyLong());
+        ArgumentCaptor<BorrowingRecord> saved = ArgumentCaptor.forClass(BorrowingRecord.class);
+        verify(borrowingRecordRepository, times(1)).saveAndFlush(saved.capture());
+        assertThat(saved.getValue().getOpenPatronId()).isEqualTo(1L);
+        verify(bookService, times(1)).evictCachedBook(1L);
+    }
+
+    @Test
+    void borrow_PatronOpenedLoanConcurrently() {
+        // Arrange
+        when(availabilityIndex.tryClaim(1L)).thenReturn(true);
+        when(borrowingRecordRepository.findEligibility(1L, 1L, LocalDate.now()))
+                .thenReturn(Optional.of(new BorrowEligibility(BookStatus.AVAILABLE, true, null, null)));
+        when(bookRepository.updateStatus(1L, BookStatus.AVAILABLE, BookStatus.BORROWED)).thenReturn(1);
+        when(borrowingRecordRepository.saveAndFlush(any(BorrowingRecord.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_borrowing_open_patron"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> borrowingService.borrow(1L, 1L))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("You must return your previous book before borrowing again.")
+                .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
+
+        verify(borrowingMetrics, times(1)).recordRejection(BorrowRejectionReason.UNRETURNED);
     }
 
     @Test
     void borrow_BookNotFound() {
         // Arrange
-        when(bookRepository.findById(1L)).thenReturn(Optional.empty());
+        when(borrowingRecordRepository.findEligibility(1L, 1L, LocalDate.now())).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThatThrownBy(() -> borrowingService.borrow(1L, 1L))
@@ -98,15 +141,14 @@ class BorrowingServiceTest {
                 .hasMessageContaining("Book not found")
                 .extracting("status").isEqualTo(HttpStatus.NOT_FOUND);
 
-        verify(bookRepository, times(1)).findById(1L);
-        verify(patronRepository, never()).findById(anyLong());
+        verify(bookRepository, never()).updateStatus(anyLong(), any(), any());
     }
 
     @Test
     void borrow_PatronNotFound() {
         // Arrange
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(patronRepository.findById(1L)).thenReturn(Optional.empty());
+        when(borrowingRecordRepository.findEligibility(1L, 1L, LocalDate.now()))
+                .thenReturn(Optional.of(new BorrowEligibility(BookStatus.AVAILABLE, false, null, null)));
 
         // Act & Assert
         assertThatThrownBy(() -> borrowingService.borrow(1L, 1L))
@@ -114,15 +156,14 @@ class BorrowingServiceTest {
                 .hasMessageContaining("Patron not found")
                 .extracting("status").isEqualTo(HttpStatus.NOT_FOUND);
 
-        verify(bookRepository, times(1)).findById(1L);
-        verify(patronRepository, times(1)).findById(1L);
+        verify(bookRepository, never()).updateStatus(anyLong(), any(), any());
     }
 
     @Test
     void borrow_BookUnavailable() {
         // Arrange
-        book.setBookStatus(BookStatus.BORROWED);
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(borrowingRecordRepository.findEligibility(1L, 1L, LocalDate.now()))
+                .thenReturn(Optional.of(new BorrowEligibility(BookStatus.BORROWED, true, null, null)));
 
         // Act & Assert
         assertThatThrownBy(() -> borrowingService.borrow(1L, 1L))
@@ -130,36 +171,135 @@ class BorrowingServiceTest {
                 .hasMessageContaining("Book is currently borrowed")
                 .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
 
-        verify(bookRepository, times(1)).findById(1L);
-        verify(patronRepository, never()).findById(anyLong());
+        verify(bookRepository, never()).updateStatus(anyLong(), any(), any());
+        verify(borrowingMetrics, times(1)).recordRejection(BorrowRejectionReason.UNAVAILABLE);
+        verify(availabilityIndex, times(1)).markBorrowed(1L);
+        verify(availabilityIndex, never()).tryClaim(anyLong());
+    }
+
+    @Test
+    void borrow_BookTakenConcurrently() {
+        // Arrange
+        when(availabilityIndex.tryClaim(1L)).thenReturn(true);
+        when(borrowingRecordRepository.findEligibility(1L, 1L, LocalDate.now()))
+                .thenReturn(Optional.of(new BorrowEligibility(BookStatus.AVAILABLE, true, null, null)));
+        when(bookRepository.updateStatus(1L, BookStatus.AVAILABLE, BookStatus.BORROWED)).thenReturn(0);
+
+        // Act & Assert
+        assertThatThrownBy(() -> borrowingService.borrow(1L, 1L))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Book is currently borrowed")
+                .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
+
+        verify(borrowingRecordRepository, never()).saveAndFlush(any(BorrowingRecord.class));
+        verify(availabilityIndex, times(1)).markBorrowed(1L);
+    }
+
+    @Test
+    void borrow_RejectedPatronDoesNotHoldUpValidBorrowOfSameBook() {
+        // Arrange
+        BookAvailabilityIndex index = new BookAvailabilityIndex(60_000, 100);
+        BorrowingService underTest = new BorrowingService(bookRepository, patronRepository, borrowingRecordRepository,
+                banRepository, index, bookService, borrowingMetrics);
+        LocalDate banUntil = LocalDate.now().plusMonths(1);
+        when(borrowingRecordRepository.findEligibility(1L, 2L, LocalDate.now()))
+                .thenReturn(Optional.of(new BorrowEligibility(BookStatus.AVAILABLE, true, null, banUntil)));
+        when(borrowingRecordRepository.findEligibility(1L, 1L, LocalDate.now()))
+                .thenReturn(Optional.of(new BorrowEligibility(BookStatus.AVAILABLE, true, null, null)));
+        when(bookRepository.updateStatus(1L, BookStatus.AVAILABLE, BookStatus.BORROWED)).thenReturn(1);
+        when(bookRepository.getReferenceById(1L)).thenReturn(book);
+        when(patronRepository.getReferenceById(1L)).thenReturn(patron);
+        when(borrowingRecordRepository.saveAndFlush(any(BorrowingRecord.class))).thenReturn(borrowingRecord);
+
+        // The banned patron's transaction is still open while the valid borrow runs
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThatThrownBy(() -> underTest.borrow(1L, 2L))
+                    .isInstanceOf(ResponseStatusException.class)
+                    .hasMessageContaining("You are banned from borrowing until " + banUntil);
+
+            // Act
+            BorrowingRecord result = underTest.borrow(1L, 1L);
+
+            // Assert
+            assertThat(result).isSameAs(borrowingRecord);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void borrow_RejectedByAvailabilityIndex() {
+        // Arrange
+        when(availabilityIndex.isKnownBorrowed(1L)).thenReturn(true);
+
+        // Act & Assert
+        assertThatThrownBy(() -> borrowingService.borrow(1L, 1L))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Book is currently borrowed")
+                .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
+
+        verify(borrowingRecordRepository, never()).findEligibility(anyLong(), anyLong(), any());
     }
 
     @Test
     void borrow_PatronBanned() {
         // Arrange
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(patronRepository.findById(1L)).thenReturn(Optional.of(patron));
-        when(banRepository.findByPatronAndBanUntilAfter(patron, LocalDate.now()))
-                .thenReturn(Optional.of(new BanRecord()));
+        LocalDate banUntil = LocalDate.now().plusMonths(1);
+        when(borrowingRecordRepository.findEligibility(1L, 1L, LocalDate.now()))
+                .thenReturn(Optional.of(new BorrowEligibility(BookStatus.AVAILABLE, true, null, banUntil)));
+
+        // Act & Assert
+        assertThatThrownBy(() -> borrowingService.borrow(1L, 1L))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("You are banned from borrowing until " + banUntil)
+                .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
+
+        verify(bookRepository, never()).updateStatus(anyLong(), any(), any());
+        verify(borrowingMetrics, times(1)).recordRejection(BorrowRejectionReason.BANNED);
+    }
+
+    @Test
+    void borrow_PatronHasUnreturnedBook() {
+        // Arrange
+        when(borrowingRecordRepository.findEligibility(1L, 1L, LocalDate.now()))
+                .thenReturn(Optional.of(new BorrowEligibility(BookStatus.AVAILABLE, true, LocalDate.now().minusWeeks(2), null)));
+
+        // Act & Assert
+        assertThatThrownBy(() -> borrowingService.borrow(1L, 1L))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("You must return your previous book before borrowing again.")
+                .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
+
+        verify(borrowingMetrics, times(1)).recordRejection(BorrowRejectionReason.UNRETURNED);
+    }
+
+    @Test
+    void borrow_PatronHasOverdueBookIsRejectedWithoutBan() {
+        // Arrange
+        when(borrowingRecordRepository.findEligibility(1L, 1L, LocalDate.now()))
+                .thenReturn(Optional.of(new BorrowEligibility(BookStatus.AVAILABLE, true, LocalDate.now().minusMonths(4), null)));
 
         // Act & Assert
         assertThatThrownBy(() -> borrowingService.borrow(1L, 1L))
                 .isInstanceOf(ResponseStatusException.class)
-                .hasMessageContaining("You are banned from borrowing until")
+                .hasMessageContaining("Your previous book is overdue")
                 .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
 
-        verify(bookRepository, times(1)).findById(1L);
-        verify(patronRepository, times(1)).findById(1L);
-        verify(banRepository, times(1)).findByPatronAndBanUntilAfter(patron, LocalDate.now());
+        verifyNoInteractions(banRepository);
+        verify(bookRepository, never()).updateStatus(anyLong(), any(), any());
+        verify(borrowingMetrics, times(1)).recordRejection(BorrowRejectionReason.UNRETURNED);
     }
 
     @Test
     void returnBook_Success() {
         // Arrange
+        borrowingRecord.setReturnDate(null);
+        book.setBookStatus(BookStatus.BORROWED);
         when(borrowingRecordRepository.findFirstByPatron_IdAndBook_IdAndReturnDateIsNullOrderByBorrowDateDesc(1L, 1L))
                 .thenReturn(Optional.of(borrowingRecord));
-        when(bookRepository.save(any(Book.class))).thenReturn(book);
-        when(borrowingRecordRepository.save(any(BorrowingRecord.class))).thenReturn(borrowingRecord);
+        when(borrowingRecordRepository.closeLoan(1L, LocalDate.now())).thenReturn(1);
+        when(bookRepository.updateStatus(1L, BookStatus.BORROWED, BookStatus.AVAILABLE)).thenReturn(1);
 
         // Act
         BorrowingRecord result = borrowingService.returnBook(1L, 1L);
@@ -171,8 +311,50 @@ class BorrowingServiceTest {
 
         verify(borrowingRecordRepository, times(1))
                 .findFirstByPatron_IdAndBook_IdAndReturnDateIsNullOrderByBorrowDateDesc(1L, 1L);
-        verify(bookRepository, times(1)).save(book);
-        verify(borrowingRecordRepository, times(1)).save(borrowingRecord);
+        verify(bookRepository, never()).save(any(Book.class));
+        verify(borrowingRecordRepository, never()).save(any(BorrowingRecord.class));
+        verify(availabilityIndex, times(1)).markAvailable(1L);
+        verify(bookService, times(1)).evictCachedBook(1L);
+        verifyNoInteractions(banRepository);
+    }
+
+    @Test
+    void returnBook_ReturnedConcurrently() {
+        // Arrange
+        borrowingRecord.setReturnDate(null);
+        when(borrowingRecordRepository.findFirstByPatron_IdAndBook_IdAndReturnDateIsNullOrderByBorrowDateDesc(1L, 1L))
+                .thenReturn(Optional.of(borrowingRecord));
+        when(borrowingRecordRepository.closeLoan(1L, LocalDate.now())).thenReturn(0);
+
+        // Act & Assert
+        assertThatThrownBy(() -> borrowingService.returnBook(1L, 1L))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("No active borrowing record found")
+                .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
+
+        verify(bookRepository, never()).updateStatus(anyLong(), any(), any());
+        verify(bookService, never()).evictCachedBook(anyLong());
+    }
+
+    @Test
+    void returnBook_LateReturnBansPatron() {
+        // Arrange
+        borrowingRecord.setReturnDate(null);
+        borrowingRecord.setBorrowDate(LocalDate.now().minusMonths(4));
+        when(borrowingRecordRepository.findFirstByPatron_IdAndBook_IdAndReturnDateIsNullOrderByBorrowDateDesc(1L, 1L))
+                .thenReturn(Optional.of(borrowingRecord));
+        when(borrowingRecordRepository.closeLoan(1L, LocalDate.now())).thenReturn(1);
+        when(bookRepository.updateStatus(1L, BookStatus.BORROWED, BookStatus.AVAILABLE)).thenReturn(1);
+        when(patronRepository.getReferenceById(1L)).thenReturn(patron);
+
+        // Act
+        borrowingService.returnBook(1L, 1L);
+
+        // Assert
+        ArgumentCaptor<BanRecord> ban = ArgumentCaptor.forClass(BanRecord.class);
+        verify(banRepository, times(1)).save(ban.capture());
+        assertThat(ban.getValue().getPatron()).isSameAs(patron);
+        assertThat(ban.getValue().getBanUntil()).isEqualTo(LocalDate.now().plusMonths(6));
     }
 
     @Test
@@ -192,4 +374,100 @@ class BorrowingServiceTest {
         verify(bookRepository, never()).save(any(Book.class));
         verify(borrowingRecordRepository, never()).save(any(BorrowingRecord.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void borrowBatch_ReportsResultPerItem() {
+        // Arrange
+        Book borrowedBook = new Book();
+        borrowedBook.setId(2L);
+        borrowedBook.setBookStatus(BookStatus.BORROWED);
+        when(bookRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(book, borrowedBook));
+        when(patronRepository.findAllById(Set.of(1L))).thenReturn(List.of(patron));
+        when(borrowingRecordRepository.findByPatron_IdInAndReturnDateIsNull(Set.of(1L))).thenReturn(List.of());
+        when(banRepository.findByPatron_IdInAndBanUntilAfter(Set.of(1L), LocalDate.now())).thenReturn(List.of());
+        when(availabilityIndex.tryClaim(1L)).thenReturn(true);
+
+        // Act
+        List<BorrowingResult> results = borrowingService.borrowBatch(List.of(
+                new BorrowingRequest(2L, 1L),
+                new BorrowingRequest(1L, 1L)));
+
+        // Assert
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).isSuccess()).isFalse();
+        assertThat(results.get(0).getMessage()).isEqualTo("Book is currently borrowed");
+        assertThat(results.get(1).isSuccess()).isTrue();
+        assertThat(results.get(1).getBorrowDate()).isEqualTo(LocalDate.now());
+        assertThat(book.getBookStatus()).isEqualTo(BookStatus.BORROWED);
+
+        verify(borrowingRecordRepository, times(1)).saveAllAndFlush(anyList());
+        verify(bookRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void borrowBatch_OneOpenLoanPerPatron() {
+        // Arrange
+        Book secondBook = new Book();
+        secondBook.setId(2L);
+        secondBook.setBookStatus(BookStatus.AVAILABLE);
+        when(bookRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(book, secondBook));
+        when(patronRepository.findAllById(Set.of(1L))).thenReturn(List.of(patron));
+        when(borrowingRecordRepository.findByPatron_IdInAndReturnDateIsNull(Set.of(1L))).thenReturn(List.of());
+        when(banRepository.findByPatron_IdInAndBanUntilAfter(Set.of(1L), LocalDate.now())).thenReturn(List.of());
+        when(availabilityIndex.tryClaim(1L)).thenReturn(true);
+
+        // Act
+        List<BorrowingResult> results = borrowingService.borrowBatch(List.of(
+                new BorrowingRequest(1L, 1L),
+                new BorrowingRequest(2L, 1L)));
+
+        // Assert
+        assertThat(results.get(0).isSuccess()).isTrue();
+        assertThat(results.get(1).isSuccess()).isFalse();
+        assertThat(results.get(1).getMessage()).isEqualTo("You must return your previous book before borrowing again.");
+        assertThat(secondBook.getBookStatus()).isEqualTo(BookStatus.AVAILABLE);
+    }
+
+    @Test
+    void borrowBatch_EmptyBatchRejected() {
+        assertThatThrownBy(() -> borrowingService.borrowBatch(List.of()))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void borrowAndReturnBatch_NullItemRejected() {
+        List<BorrowingRequest> requests = Arrays.asList(new BorrowingRequest(1L, 1L), null);
+
+        assertThatThrownBy(() -> borrowingService.borrowBatch(requests))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThatThrownBy(() -> borrowingService.returnBatch(requests))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(bookRepository, borrowingRecordRepository);
+    }
+
+    @Test
+    void returnBatch_ReportsResultPerItem() {
+        // Arrange
+        borrowingRecord.setReturnDate(null);
+        book.setBookStatus(BookStatus.BORROWED);
+        when(borrowingRecordRepository.findByBook_IdInAndReturnDateIsNull(Set.of(1L, 2L))).thenReturn(List.of(borrowingRecord));
+
+        // Act
+        List<BorrowingResult> results = borrowingService.returnBatch(List.of(
+                new BorrowingRequest(1L, 1L),
+                new BorrowingRequest(2L, 1L)));
+
+        // Assert
+        assertThat(results.get(0).isSuccess()).isTrue();
+        assertThat(results.get(0).getReturnDate()).isEqualTo(LocalDate.now());
+        assertThat(results.get(1).isSuccess()).isFalse();
+        assertThat(results.get(1).getMessage()).isEqualTo("No active borrowing record found");
+        assertThat(book.getBookStatus()).isEqualTo(BookStatus.AVAILABLE);
+
+        verify(availabilityIndex, times(1)).markAvailable(1L);
+        verify(bookService, times(1)).evictCachedBook(1L);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.LMS_test.borrow;
+
+import com.example.LMS_test.book.Book;
+import com.example.LMS_test.book.BookStatus;
+import com.example.LMS_test.patron.Patron;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(OpenLoanBackfill.class)
+class OpenLoanBackfillTest {
+
+    @Autowired
+    private OpenLoanBackfill underTest;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Book book;
+    private Patron patron;
+    private Patron otherPatron;
+
+    @BeforeEach
+    void setUp() {
+        book = new Book();
+        book.setTitle("Code");
+        book.setAuthor("Tahseen");
+        book.setIsbn("1234567891234");
+        book.setPublishDate(LocalDate.now());
+        book.setBookStatus(BookStatus.BORROWED);
+        entityManager.persist(book);
+
+        patron = newPatron("Abd");
+        otherPatron = newPatron("Tahseen");
+    }
+
+    @Test
+    void run_TracksOnlyTheNewestOpenLoanPerPatron() {
+        // Arrange: loans opened before open_patron_id existed
+        BorrowingRecord older = newLoan(patron, LocalDate.of(2025, 1, 1), null);
+        BorrowingRecord newer = newLoan(patron, LocalDate.of(2025, 2, 1), null);
+        BorrowingRecord other = newLoan(otherPatron, LocalDate.of(2025, 1, 1), null);
+        BorrowingRecord returned = newLoan(otherPatron, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1));
+        assertThat(borrowingRecordRepository.findPatronIdsWithSeveralOpenLoans()).containsExactly(patron.getId());
+
+        // Act
+        underTest.run(new DefaultApplicationArguments());
+
+        // Assert
+        assertThat(openPatronIdOf(older)).isNull();
+        assertThat(openPatronIdOf(newer)).isEqualTo(patron.getId());
+        assertThat(openPatronIdOf(other)).isEqualTo(otherPatron.getId());
+        assertThat(openPatronIdOf(returned)).isNull();
+    }
+
+    @Test
+    void run_LeavesTrackedLoansAlone() {
+        // Arrange: the patron already borrowed through the new path, next to a loan from before
+        BorrowingRecord legacy = newLoan(patron, LocalDate.of(2025, 3, 1), null);
+        BorrowingRecord tracked = newLoan(patron, LocalDate.of(2025, 2, 1), null);
+        tracked.setOpenPatronId(patron.getId());
+        entityManager.flush();
+
+        // Act
+        underTest.run(new DefaultApplicationArguments());
+        underTest.run(new DefaultApplicationArguments());
+
+        // Assert
+        assertThat(openPatronIdOf(legacy)).isNull();
+        assertThat(openPatronIdOf(tracked)).isEqualTo(patron.getId());
+        assertThat(borrowingRecordRepository.backfillOpenPatronIds()).isZero();
+    }
+
+    private Patron newPatron(String name) {
+        Patron newPatron = new Patron();
+        newPatron.setName(name);
+        newPatron.setContactInfo("1234");
+        return entityManager.persist(newPatron);
+    }
+
+    private BorrowingRecord newLoan(Patron borrower, LocalDate borrowDate, LocalDate returnDate) {
+        BorrowingRecord borrowingRecord = new BorrowingRecord();
+        borrowingRecord.setBook(book);
+        borrowingRecord.setPatron(borrower);
+        borrowingRecord.setBorrowDate(borrowDate);
+        borrowingRecord.setReturnDate(returnDate);
+        return entityManager.persistAndFlush(borrowingRecord);
+    }
+
+    private Long openPatronIdOf(BorrowingRecord borrowingRecord) {
+        return entityManager.find(BorrowingRecord.class, borrowingRecord.getId()).getOpenPatronId();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.LMS_test.borrow;
+
+import com.example.LMS_test.ban.BanRecord;
+import com.example.LMS_test.ban.BanRepository;
+import com.example.LMS_test.patron.Patron;
+import com.example.LMS_test.patron.PatronRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OverdueBanJobTest {
+
+    @Mock
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Mock
+    private BanRepository banRepository;
+
+    @Mock
+    private PatronRepository patronRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private OverdueBanJob underTest;
+
+    private final LocalDate cutoff = LocalDate.now().minusWeeks(1).minusMonths(3);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(underTest, "batchSize", 2);
+        ReflectionTestUtils.setField(underTest, "partitionCount", 1);
+        ReflectionTestUtils.setField(underTest, "partition", 0);
+
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+        lenient().when(patronRepository.getReferenceById(any())).thenAnswer(invocation -> {
+            Patron patron = new Patron();
+            patron.setId(invocation.getArgument(0));
+            return patron;
+        });
+    }
+
+    @Test
+    void scan_BansPatronsInKeysetBatches() {
+        // Arrange
+        LocalDate oldest = cutoff.minusDays(10);
+        LocalDate newest = cutoff.minusDays(1);
+        when(borrowingRecordRepository.findOverdueLoans(eq(cutoff), any(), any(), eq(1), eq(0), eq(Limit.of(2))))
+                .thenReturn(List.of(new OverdueLoan(5L, 1L, oldest), new OverdueLoan(3L, 2L, newest)))
+                .thenReturn(List.of(new OverdueLoan(4L, 3L, newest)));
+        when(banRepository.findPatronIdsBannedAfter(anyCollection(), eq(LocalDate.now()))).thenReturn(Set.of());
+
+        // Act
+        underTest.scan();
+
+        // Assert
+        verify(borrowingRecordRepository).findOverdueLoans(cutoff, newest, 3L, 1, 0, Limit.of(2));
+        ArgumentCaptor<List<BanRecord>> bans = ArgumentCaptor.forClass(List.class);
+        verify(banRepository, times(2)).saveAll(bans.capture());
+        assertThat(bans.getAllValues().stream().flatMap(List::stream).map(ban -> ban.getPatron().getId()))
+                .containsExactly(1L, 2L, 3L);
+        assertThat(bans.getAllValues().get(0).get(0).getBanUntil()).isEqualTo(LocalDate.now().plusMonths(6));
+        assertThat(underTest.getBansIssuedTotal()).isEqualTo(3);
+    }
+
+    @Test
+    void scan_SkipsPatronsAlreadyBanned() {
+        // Arrange
+        when(borrowingRecordRepository.findOverdueLoans(eq(cutoff), any(), any(), eq(1), eq(0), eq(Limit.of(2))))
+                .thenReturn(List.of(new OverdueLoan(1L, 1L, cutoff.minusDays(1))));
+        when(banRepository.findPatronIdsBannedAfter(anyCollection(), eq(LocalDate.now()))).thenReturn(Set.of(1L));
+
+        // Act
+        underTest.scan();
+
+        // Assert
+        verify(banRepository).saveAll(List.of());
+        verify(borrowingRecordRepository, times(1)).findOverdueLoans(any(), any(), any(), anyInt(), anyInt(), any());
+        assertThat(underTest.getBansIssuedTotal()).isZero();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.LMS_test.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder underTest;
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void encodeAndMatches_DelegateToBCrypt() {
+        // Arrange
+        underTest = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 4, 5000);
+
+        // Act
+        String hash = underTest.encode("secret");
+
+        // Assert
+        assertThat(underTest.matches("secret", hash)).isTrue();
+        assertThat(underTest.matches("other", hash)).isFalse();
+    }
+
+    @Test
+    void upgradeEncoding_WhenStoredHashIsWeaker() {
+        // Arrange
+        String weakHash = new BCryptPasswordEncoder(4).encode("secret");
+        underTest = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 1, 1, 5000);
+
+        // Act & Assert
+        assertThat(underTest.upgradeEncoding(weakHash)).isTrue();
+        assertThat(underTest.upgradeEncoding(underTest.encode("secret"))).isFalse();
+    }
+
+    @Test
+    void encode_RejectedWhenQueueIsFull() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        underTest = new BoundedPasswordEncoder(new BlockingEncoder(started, release), 1, 1, 5000);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> underTest.encode("a"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> underTest.encode("b"));
+        while (underTest.getQueueSize() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // Act & Assert
+        assertThatThrownBy(() -> underTest.encode("c"))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting("status").isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(underTest.getRejectedTotal()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("a");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("b");
+    }
+
+    private static class BlockingEncoder implements PasswordEncoder {
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        BlockingEncoder(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
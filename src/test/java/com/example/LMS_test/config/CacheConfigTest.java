@@ -0,0 +1,194 @@
+package com.example.LMS_test.config;
+
+import com.example.LMS_test.book.Book;
+import com.example.LMS_test.book.BookPage;
+import com.example.LMS_test.book.BookRepository;
+import com.example.LMS_test.book.BookStatus;
+import com.example.LMS_test.patron.PatronRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Policy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheConfigTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private PatronRepository patronRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final CachePolicyProperties properties = new CachePolicyProperties();
+    private final CacheConfig cacheConfig = new CacheConfig(properties);
+
+    @BeforeEach
+    void setUp() {
+        properties.getPolicies().put("books", policy(Duration.ofSeconds(1), null));
+    }
+
+    @Test
+    void books_ConcurrentMissesLoadOnce() throws Exception {
+        // Arrange
+        Cache books = cacheManager().getCache("books");
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Book>> readers = new ArrayList<>();
+
+        // Act: what @Cacheable(sync = true) does on a miss
+        for (int i = 0; i < 8; i++) {
+            readers.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return books.get(1L, () -> {
+                    loads.incrementAndGet();
+                    Thread.sleep(50);
+                    return book(BookStatus.AVAILABLE);
+                });
+            }));
+        }
+        start.countDown();
+
+        // Assert
+        for (CompletableFuture<Book> reader : readers) {
+            assertThat(reader.get(5, TimeUnit.SECONDS).getBookStatus()).isEqualTo(BookStatus.AVAILABLE);
+        }
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void books_StaleEntryIsServedWhileReloadedInBackground() throws Exception {
+        // Arrange
+        Cache books = cacheManager().getCache("books");
+        books.put(1L, book(BookStatus.AVAILABLE));
+        CountDownLatch staleRead = new CountDownLatch(1);
+        when(bookRepository.findById(1L)).thenAnswer(invocation -> {
+            staleRead.await(5, TimeUnit.SECONDS);
+            return Optional.of(book(BookStatus.BORROWED));
+        });
+        Thread.sleep(1100);
+
+        // Act
+        Book stale = books.get(1L, Book.class);
+        staleRead.countDown();
+
+        // Assert
+        assertThat(stale.getBookStatus()).isEqualTo(BookStatus.AVAILABLE);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (books.get(1L, Book.class).getBookStatus() != BookStatus.BORROWED && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(books.get(1L, Book.class).getBookStatus()).isEqualTo(BookStatus.BORROWED);
+        verify(bookRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void books_PlainLookupOfMissingEntryDoesNotLoad() {
+        // Arrange
+        CacheManager cacheManager = cacheManager();
+
+        // Act
+        Book cached = cacheManager.getCache("books").get(1L, Book.class);
+
+        // Assert
+        assertThat(cached).isNull();
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void bookPages_WeighedBySerializedSizeAgainstItsOwnLimit() {
+        // Arrange
+        properties.getPolicies().put("bookPages", policy(null, DataSize.ofKilobytes(16)));
+        Cache pages = cacheManager().getCache("bookPages");
+        List<Book> content = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            content.add(book(BookStatus.AVAILABLE));
+        }
+
+        // Act
+        pages.put("0:1", new BookPage(List.of(book(BookStatus.AVAILABLE)), null));
+        pages.put("0:5", new BookPage(content, null));
+
+        // Assert
+        Policy.Eviction<Object, Object> eviction = nativeCache(pages).policy().eviction().orElseThrow();
+        assertThat(eviction.isWeighted()).isTrue();
+        assertThat(eviction.getMaximum()).isEqualTo(16 * 1024);
+        assertThat(eviction.weightOf("0:5").orElseThrow()).isGreaterThan(4 * eviction.weightOf("0:1").orElseThrow());
+        assertThat(nativeCache(pages).policy().expireAfterWrite().orElseThrow().getExpiresAfter(TimeUnit.SECONDS)).isEqualTo(600);
+    }
+
+    @Test
+    void users_FallsBackToDefaultEntryLimit() {
+        // Arrange
+        properties.setMaximumSize(42);
+
+        // Act
+        Cache users = cacheManager().getCache("users");
+
+        // Assert
+        Policy.Eviction<Object, Object> eviction = nativeCache(users).policy().eviction().orElseThrow();
+        assertThat(eviction.isWeighted()).isFalse();
+        assertThat(eviction.getMaximum()).isEqualTo(42);
+        assertThat(nativeCache(users).policy().refreshAfterWrite()).isEmpty();
+    }
+
+    @Test
+    void refreshOnCacheWithoutLoader_FailsAtStartup() {
+        // Arrange
+        properties.getPolicies().put("bookPages", policy(Duration.ofSeconds(30), null));
+
+        // Act & Assert
+        assertThatThrownBy(() -> cacheManager())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("cache.policies.bookPages.refresh-after-write");
+    }
+
+    private CacheManager cacheManager() {
+        DefaultListableBeanFactory repositories = new DefaultListableBeanFactory();
+        repositories.registerSingleton("bookRepository", bookRepository);
+        repositories.registerSingleton("patronRepository", patronRepository);
+        return cacheConfig.cacheManager(repositories.getBeanProvider(BookRepository.class),
+                repositories.getBeanProvider(PatronRepository.class), objectMapper);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(Cache cache) {
+        return (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+    }
+
+    private static CachePolicyProperties.Policy policy(Duration refreshAfterWrite, DataSize maxWeight) {
+        CachePolicyProperties.Policy policy = new CachePolicyProperties.Policy();
+        policy.setRefreshAfterWrite(refreshAfterWrite);
+        policy.setMaxWeight(maxWeight);
+        return policy;
+    }
+
+    private static Book book(BookStatus status) {
+        return new Book("Refactoring", "Fowler", null, LocalDate.of(1999, 7, 8), status, null);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.LMS_test.config;
+
+import com.example.LMS_test.book.BookPage;
+import com.example.LMS_test.book.BookService;
+import com.example.LMS_test.patron.Patron;
+import com.example.LMS_test.patron.PatronRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmerTest {
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private PatronRepository patronRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @InjectMocks
+    private CacheWarmer underTest;
+
+    private final CacheManager caches = new ConcurrentMapCacheManager("books", "patrons");
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(underTest, "enabled", true);
+        ReflectionTestUtils.setField(underTest, "bookPages", 1);
+        ReflectionTestUtils.setField(underTest, "maxPatrons", 70);
+        when(cacheManager.getCache(anyString())).thenAnswer(invocation -> caches.getCache(invocation.getArgument(0)));
+        when(bookService.getPage(anyLong(), anyInt())).thenReturn(new BookPage(List.of(), null));
+    }
+
+    @Test
+    void warmUp_PatronsAreReadInKeysetPagesUpToTheLimit() {
+        // Arrange
+        when(patronRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(50))).thenReturn(patrons(1, 50));
+        when(patronRepository.findByIdGreaterThanOrderByIdAsc(50L, Limit.of(20))).thenReturn(patrons(51, 70));
+
+        // Act
+        underTest.warmUp();
+
+        // Assert
+        verify(patronRepository, times(2)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+        verify(patronRepository, never()).findAll();
+        assertThat(caches.getCache("patrons").get(70L)).isNotNull();
+        assertThat(caches.getCache("patrons").get(71L)).isNull();
+    }
+
+    private static List<Patron> patrons(long firstId, long lastId) {
+        return LongStream.rangeClosed(firstId, lastId).mapToObj(id -> {
+            Patron patron = new Patron();
+            patron.setId(id);
+            return patron;
+        }).toList();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.LMS_test.config;
+
+import com.example.LMS_test.user.Role;
+import com.example.LMS_test.user.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+
+    private static final String SECRET_KEY = "6A3F9D2E7C1B4A8E5F0C3D9A2B7E4F8C1A5D3E6B9F2C7A4E8D1B6F3C9A2E5D8B1F4C7";
+
+    private JwtService underTest;
+    private SimpleMeterRegistry meterRegistry;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new JwtService(meterRegistry);
+        ReflectionTestUtils.setField(underTest, "secretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(underTest, "claimsCacheMaximumSize", 100L);
+        underTest.init();
+
+        user = User.builder().username("abd").role(Role.USER).build();
+    }
+
+    @Test
+    void validateToken_Success() {
+        // Arrange
+        String token = underTest.generateToken(user);
+
+        // Act & Assert
+        assertThat(underTest.extractUserName(token)).isEqualTo("abd");
+        assertThat(underTest.validateToken(token, user)).isTrue();
+    }
+
+    @Test
+    void validateToken_OtherUser() {
+        // Arrange
+        String token = underTest.generateToken(user);
+        User other = User.builder().username("tahseen").role(Role.USER).build();
+
+        // Act & Assert
+        assertThat(underTest.validateToken(token, other)).isFalse();
+    }
+
+    @Test
+    void extractAllClaims_ParsesTokenOnce() {
+        // Arrange
+        String token = underTest.generateToken(user);
+
+        // Act
+        Claims first = underTest.extractAllClaims(token);
+        Claims second = underTest.extractAllClaims(token);
+
+        // Assert
+        assertThat(second).isSameAs(first);
+        assertThat(meterRegistry.get("lms.jwt.parse").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void extractAllClaims_TamperedToken() {
+        // Arrange
+        String token = underTest.generateToken(user);
+        String tampered = token.substring(0, token.length() - 4) + (token.endsWith("AAAA") ? "BBBB" : "AAAA");
+
+        // Act & Assert
+        assertThatThrownBy(() -> underTest.extractAllClaims(tampered))
+                .isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void readExpiration_ExpiredTokenStillYieldsItsExpiry() {
+        // Arrange
+        String expired = underTest.generateToken(new HashMap<>(), user, -60_000);
+        String tampered = expired.substring(0, expired.length() - 4) + (expired.endsWith("AAAA") ? "BBBB" : "AAAA");
+
+        // Act & Assert
+        assertThat(underTest.readExpiration(expired)).isInThePast();
+        assertThat(underTest.readExpiration(tampered)).isNull();
+        assertThat(underTest.readExpiration("not-a-jwt")).isNull();
+    }
+
+    @Test
+    void extractAllClaims_TokenWithoutExpirationIsCachedButNotValid() {
+        // Arrange
+        String token = Jwts.builder()
+                .setSubject("abd")
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY)), SignatureAlgorithm.HS256)
+                .compact();
+
+        // Act
+        Claims first = underTest.extractAllClaims(token);
+        Claims second = underTest.extractAllClaims(token);
+
+        // Assert
+        assertThat(second).isSameAs(first);
+        assertThat(meterRegistry.get("lms.jwt.parse").timer().count()).isEqualTo(1);
+        assertThat(underTest.validateToken(token, user)).isFalse();
+    }
+}
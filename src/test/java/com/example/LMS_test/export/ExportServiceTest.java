@@ -0,0 +1,103 @@
+package com.example.LMS_test.export;
+
+import com.example.LMS_test.book.Book;
+import com.example.LMS_test.book.BookStatus;
+import com.example.LMS_test.borrow.BorrowingRecord;
+import com.example.LMS_test.patron.Patron;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class ExportServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ExportService underTest;
+    private Book book;
+    private Book secondBook;
+    private Patron patron;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new ExportService(entityManager.getEntityManager(), transactionManager, objectMapper);
+
+        book = new Book("Code, \"Complete\"", "Tahseen", "1234567891234", LocalDate.of(2004, 6, 9), BookStatus.BORROWED, null);
+        entityManager.persist(book);
+        secondBook = new Book("Refactoring", "Fowler", null, LocalDate.of(1999, 7, 8), BookStatus.AVAILABLE, null);
+        entityManager.persist(secondBook);
+
+        patron = new Patron();
+        patron.setName("Abd");
+        patron.setContactInfo("1234");
+        entityManager.persist(patron);
+
+        BorrowingRecord borrowingRecord = new BorrowingRecord();
+        borrowingRecord.setBook(book);
+        borrowingRecord.setPatron(patron);
+        borrowingRecord.setBorrowDate(LocalDate.of(2025, 1, 2));
+        entityManager.persist(borrowingRecord);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void export_BooksAsCsv() throws Exception {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        long rows = underTest.export(ExportDataset.BOOKS, ExportFormat.CSV, false, output);
+
+        // Assert
+        assertThat(rows).isEqualTo(2);
+        assertThat(output.toString(StandardCharsets.UTF_8).split("\n")).containsExactly(
+                "id,title,author,isbn,publishDate,bookStatus",
+                book.getId() + ",\"Code, \"\"Complete\"\"\",Tahseen,1234567891234,2004-06-09,BORROWED",
+                secondBook.getId() + ",Refactoring,Fowler,,1999-07-08,AVAILABLE");
+    }
+
+    @Test
+    void export_BorrowingsAsGzippedJsonLines() throws Exception {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        long rows = underTest.export(ExportDataset.BORROWINGS, ExportFormat.JSONL, true, output);
+
+        // Assert
+        assertThat(rows).isEqualTo(1);
+        String content;
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            content = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<String> lines = content.lines().toList();
+        assertThat(lines).hasSize(1);
+        assertThat(content).endsWith("\n");
+        JsonNode record = objectMapper.readTree(lines.get(0));
+        assertThat(record.get("bookId").asLong()).isEqualTo(book.getId());
+        assertThat(record.get("patronId").asLong()).isEqualTo(patron.getId());
+        assertThat(record.get("borrowDate").asText()).isEqualTo("2025-01-02");
+        assertThat(record.get("returnDate").isNull()).isTrue();
+    }
+}
@@ -39,7 +39,7 @@ class PatronServiceTest {
     @Test
     void create_Success() {
         // Arrange
-        when(patronRepository.save(any(Patron.class))).thenReturn(patron);
+        when(patronRepository.saveAndFlush(any(Patron.class))).thenReturn(patron);
 
         // Act
         Patron result = patronService.create(patronRequest);
@@ -50,13 +50,13 @@ class PatronServiceTest {
         assertThat(result.getName()).isEqualTo("John Doe");
         assertThat(result.getContactInfo()).isEqualTo("1234");
 
-        verify(patronRepository, times(1)).save(any(Patron.class));
+        verify(patronRepository, times(1)).saveAndFlush(any(Patron.class));
     }
 
     @Test
     void create_DataIntegrityViolationException() {
         // Arrange
-        when(patronRepository.save(any(Patron.class)))
+        when(patronRepository.saveAndFlush(any(Patron.class)))
                 .thenThrow(new DataIntegrityViolationException("Unique constraint violation"));
 
         // Act & Assert
@@ -65,13 +65,13 @@ class PatronServiceTest {
                 .hasMessageContaining("Patron already exists")
                 .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
 
-        verify(patronRepository, times(1)).save(any(Patron.class));
+        verify(patronRepository, times(1)).saveAndFlush(any(Patron.class));
     }
 
     @Test
     void create_UnexpectedError() {
         // Arrange
-        when(patronRepository.save(any(Patron.class)))
+        when(patronRepository.saveAndFlush(any(Patron.class)))
                 .thenThrow(new RuntimeException("Unexpected error"));
 
         // Act & Assert
@@ -80,14 +80,14 @@ class PatronServiceTest {
                 .hasMessageContaining("An unexpected error occurred")
                 .extracting("status").isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
 
-        verify(patronRepository, times(1)).save(any(Patron.class));
+        verify(patronRepository, times(1)).saveAndFlush(any(Patron.class));
     }
 
     @Test
     void update_Success() {
         // Arrange
         when(patronRepository.findById(1L)).thenReturn(Optional.of(patron));
-        when(patronRepository.save(any(Patron.class))).thenReturn(patron);
+        when(patronRepository.saveAndFlush(any(Patron.class))).thenReturn(patron);
 
         // Act
         Patron result = patronService.update(1L, patronRequest);
@@ -99,7 +99,7 @@ class PatronServiceTest {
         assertThat(result.getContactInfo()).isEqualTo("1234");
 
         verify(patronRepository, times(1)).findById(1L);
-        verify(patronRepository, times(1)).save(any(Patron.class));
+        verify(patronRepository, times(1)).saveAndFlush(any(Patron.class));
     }
 
     @Test
@@ -114,14 +114,14 @@ class PatronServiceTest {
                 .extracting("status").isEqualTo(HttpStatus.NOT_FOUND);
 
         verify(patronRepository, times(1)).findById(1L);
-        verify(patronRepository, never()).save(any(Patron.class));
+        verify(patronRepository, never()).saveAndFlush(any(Patron.class));
     }
 
     @Test
     void update_DataIntegrityViolationException() {
         // Arrange
         when(patronRepository.findById(1L)).thenReturn(Optional.of(patron));
-        when(patronRepository.save(any(Patron.class)))
+        when(patronRepository.saveAndFlush(any(Patron.class)))
                 .thenThrow(new DataIntegrityViolationException("Unique constraint violation"));
 
         // Act & Assert
@@ -131,6 +131,6 @@ class PatronServiceTest {
                 .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
 
         verify(patronRepository, times(1)).findById(1L);
-        verify(patronRepository, times(1)).save(any(Patron.class));
+        verify(patronRepository, times(1)).saveAndFlush(any(Patron.class));
     }
 }
\ No newline at end of file
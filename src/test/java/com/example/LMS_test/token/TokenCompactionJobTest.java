@@ -0,0 +1,92 @@
+package com.example.LMS_test.token;
+
+import com.example.LMS_test.config.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenCompactionJobTest {
+
+    @Mock
+    private TokenRepository tokenRepository;
+
+    @Mock
+    private JwtService jwtService;
+
+    @InjectMocks
+    private TokenCompactionJob underTest;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(underTest, "batchSize", 2);
+        ReflectionTestUtils.setField(underTest, "maxBatchesPerRun", 10);
+    }
+
+    @Test
+    void compact_DeletesInBatchesUntilDrained() {
+        // Arrange
+        when(tokenRepository.findIdsExpiredBefore(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+
+        // Act
+        underTest.compact();
+
+        // Assert
+        verify(tokenRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(tokenRepository).deleteAllByIdInBatch(List.of(3L));
+        assertThat(underTest.getPurgedTotal()).isEqualTo(3);
+    }
+
+    @Test
+    void compact_StopsAtBatchLimit() {
+        // Arrange
+        ReflectionTestUtils.setField(underTest, "maxBatchesPerRun", 1);
+        when(tokenRepository.findIdsExpiredBefore(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L));
+
+        // Act
+        underTest.compact();
+
+        // Assert
+        verify(tokenRepository, times(1)).deleteAllByIdInBatch(anyList());
+        assertThat(underTest.getPurgedTotal()).isEqualTo(2);
+    }
+
+    @Test
+    void compact_BackfillsLegacyExpiryFromTheJwtInsteadOfDeleting() {
+        // Arrange
+        LocalDateTime expiresAt = LocalDateTime.now().plusDays(3).withNano(0);
+        Token revoked = Token.builder().token("revoked").revoked(true).build();
+        Token malformed = Token.builder().token("malformed").revoked(true).build();
+        when(tokenRepository.findByExpiresAtIsNull(any(Pageable.class))).thenReturn(List.of(revoked, malformed))
+                .thenReturn(List.of());
+        when(jwtService.readExpiration("revoked")).thenReturn(Date.from(expiresAt.atZone(ZoneId.systemDefault()).toInstant()));
+        when(jwtService.readExpiration("malformed")).thenReturn(null);
+        when(tokenRepository.findIdsExpiredBefore(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of());
+
+        // Act
+        underTest.compact();
+
+        // Assert
+        verify(tokenRepository).saveAll(List.of(revoked, malformed));
+        assertThat(revoked.getExpiresAt()).isEqualTo(expiresAt);
+        assertThat(malformed.getExpiresAt()).isBeforeOrEqualTo(LocalDateTime.now());
+        verify(tokenRepository, never()).deleteAllByIdInBatch(anyList());
+    }
+}
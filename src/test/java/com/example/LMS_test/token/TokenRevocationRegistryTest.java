@@ -0,0 +1,53 @@
+package com.example.LMS_test.token;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationRegistryTest {
+
+    @Mock
+    private TokenRepository tokenRepository;
+
+    @InjectMocks
+    private TokenRevocationRegistry underTest;
+
+    @Test
+    void load_RevokedTokensFromTable() {
+        // Arrange
+        Token revoked = Token.builder().token("revoked").revoked(true).expiresAt(LocalDateTime.now().plusDays(1)).build();
+        when(tokenRepository.findAllRevokedNotExpired(any(LocalDateTime.class))).thenReturn(List.of(revoked));
+
+        // Act
+        underTest.load();
+
+        // Assert
+        assertThat(underTest.isRevoked("revoked")).isTrue();
+        assertThat(underTest.isRevoked("valid")).isFalse();
+    }
+
+    @Test
+    void purgeExpired_DropsTokensPastExpiry() {
+        // Arrange
+        Token expired = Token.builder().token("expired").expiresAt(LocalDateTime.now().minusMinutes(1)).build();
+        Token live = Token.builder().token("live").expiresAt(LocalDateTime.now().plusDays(1)).build();
+        underTest.revoke(List.of(expired, live));
+
+        // Act
+        underTest.purgeExpired();
+
+        // Assert
+        assertThat(underTest.isRevoked("expired")).isFalse();
+        assertThat(underTest.isRevoked("live")).isTrue();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.LMS_test.user;
+
+import com.example.LMS_test.config.ApplicationConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheInvalidatorTest {
+
+    @Mock
+    private ObjectProvider<CacheManager> cacheManagerProvider;
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager(ApplicationConfig.USERS_CACHE);
+    private UserCacheInvalidator underTest;
+    private Cache users;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new UserCacheInvalidator(cacheManagerProvider);
+        users = cacheManager.getCache(ApplicationConfig.USERS_CACHE);
+    }
+
+    @Test
+    void evict_RenamedUserIsEvictedUnderBothUsernames() {
+        // Arrange
+        when(cacheManagerProvider.getObject()).thenReturn(cacheManager);
+        User user = User.builder().username("abd").role(Role.USER).build();
+        underTest.remember(user);
+        users.put("abd", user);
+        users.put("tahseen", user);
+        users.put("other", new User());
+        user.setUsername("tahseen");
+
+        // Act
+        underTest.evict(user);
+
+        // Assert
+        assertThat(users.get("abd")).isNull();
+        assertThat(users.get("tahseen")).isNull();
+        assertThat(users.get("other")).isNotNull();
+    }
+
+    @Test
+    void evict_NextRenameStartsFromTheNewUsername() {
+        // Arrange
+        when(cacheManagerProvider.getObject()).thenReturn(cacheManager);
+        User user = User.builder().username("abd").role(Role.USER).build();
+        underTest.remember(user);
+        user.setUsername("tahseen");
+        underTest.evict(user);
+        users.put("abd", new User());
+        users.put("tahseen", user);
+
+        // Act
+        user.setUsername("third");
+        underTest.evict(user);
+
+        // Assert: "abd" is free again and may belong to someone else by now
+        assertThat(users.get("abd")).isNotNull();
+        assertThat(users.get("tahseen")).isNull();
+    }
+}